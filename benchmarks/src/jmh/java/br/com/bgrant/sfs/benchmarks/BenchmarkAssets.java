@@ -0,0 +1,23 @@
+package br.com.bgrant.sfs.benchmarks;
+
+import br.com.bgrant.sfs.objects.FrameData;
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Game data the benchmarks load from the classpath, the data folder of the assets is part of the jmh resources.
+ */
+public final class BenchmarkAssets {
+
+    private static FrameData frameData;
+
+    private BenchmarkAssets() {
+    }
+
+    public static synchronized FrameData frameData() {
+        if (frameData == null) {
+            HeadlessGdx.initialize();
+            frameData = FrameData.load(Gdx.files.classpath(FrameData.FILE));
+        }
+        return frameData;
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.bgrant.sfs.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/**
+ * Starts a headless libGDX application with a {@link NoOpGL20}, so render code can run without a window.
+ */
+public final class HeadlessGdx {
+
+    private static HeadlessApplication application;
+
+    private HeadlessGdx() {
+    }
+
+    public static synchronized void initialize() {
+        if (application != null) return;
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        // never call render, the benchmarks drive everything themselves
+        configuration.updatesPerSecond = -1;
+        application = new HeadlessApplication(new ApplicationAdapter() {
+        }, configuration);
+        Gdx.gl = Gdx.gl20 = NoOpGL20.create();
+    }
+}
@@ -0,0 +1,43 @@
+package br.com.bgrant.sfs.benchmarks;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * A {@link GL20} that does nothing, so textures, shaders and meshes can be created without a GL context.
+ * Every shader compiles and links, object names are never zero and every other query returns a default value.
+ * Calls go through a dynamic proxy, so keep it out of the measured code paths where possible.
+ */
+public final class NoOpGL20 {
+
+    private NoOpGL20() {
+    }
+
+    public static GL20 create() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+            (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+                    int parameter = (Integer) args[1];
+                    IntBuffer params = (IntBuffer) args[2];
+                    boolean status = parameter == GL20.GL_COMPILE_STATUS || parameter == GL20.GL_LINK_STATUS;
+                    params.put(params.position(), status ? 1 : 0);
+                    return null;
+                }
+                Class<?> type = method.getReturnType();
+                if (type == int.class) {
+                    // glGen* and glCreate* treat 0 as a failure
+                    return name.startsWith("glGen") || name.startsWith("glCreate") ? 1 : 0;
+                } else if (type == boolean.class) {
+                    return false;
+                } else if (type == float.class) {
+                    return 0f;
+                } else if (type == String.class) {
+                    return "";
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,267 @@
+package br.com.bgrant.sfs.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * A {@link Batch} that draws nothing and only counts what a {@link com.badlogic.gdx.graphics.g2d.SpriteBatch}
+ * would have sent to the GPU: sprites, and flushes caused by texture switches, {@link #flush()} and {@link #end()}.
+ * Counters of the current begin/end pair are reset by {@link #begin()}, like {@code SpriteBatch.renderCalls}.
+ */
+public class RecordingBatch implements Batch {
+
+    //flushes since the last begin
+    public int renderCalls;
+    //flushes since the batch was created
+    public int totalRenderCalls;
+    //sprites drawn since the last begin
+    public int sprites;
+    //times begin was called since the batch was created
+    public int begins;
+
+    private final Color color = new Color(1, 1, 1, 1);
+    private float packedColor = Color.WHITE_FLOAT_BITS;
+    private final Matrix4 projectionMatrix = new Matrix4();
+    private final Matrix4 transformMatrix = new Matrix4();
+    private Texture lastTexture;
+    private int pendingSprites;
+    private boolean drawing;
+    private boolean blendingDisabled;
+    private int blendSrcFunc = GL20.GL_SRC_ALPHA;
+    private int blendDstFunc = GL20.GL_ONE_MINUS_SRC_ALPHA;
+    private int blendSrcFuncAlpha = GL20.GL_SRC_ALPHA;
+    private int blendDstFuncAlpha = GL20.GL_ONE_MINUS_SRC_ALPHA;
+    private ShaderProgram shader;
+
+    @Override
+    public void begin() {
+        if (drawing) throw new IllegalStateException("RecordingBatch.end must be called before begin.");
+        renderCalls = 0;
+        sprites = 0;
+        begins++;
+        drawing = true;
+    }
+
+    @Override
+    public void end() {
+        if (!drawing) throw new IllegalStateException("RecordingBatch.begin must be called before end.");
+        flush();
+        lastTexture = null;
+        drawing = false;
+    }
+
+    private void record(Texture texture, int count) {
+        if (!drawing) throw new IllegalStateException("RecordingBatch.begin must be called before draw.");
+        if (texture != lastTexture) {
+            flush();
+            lastTexture = texture;
+        }
+        pendingSprites += count;
+        sprites += count;
+    }
+
+    @Override
+    public void flush() {
+        if (pendingSprites == 0) return;
+        pendingSprites = 0;
+        renderCalls++;
+        totalRenderCalls++;
+    }
+
+    @Override
+    public void setColor(Color tint) {
+        color.set(tint);
+        packedColor = tint.toFloatBits();
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        color.set(r, g, b, a);
+        packedColor = color.toFloatBits();
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public void setPackedColor(float packedColor) {
+        Color.abgr8888ToColor(color, packedColor);
+        this.packedColor = packedColor;
+    }
+
+    @Override
+    public float getPackedColor() {
+        return packedColor;
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight,
+                     boolean flipX, boolean flipY) {
+        record(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth,
+                     int srcHeight, boolean flipX, boolean flipY) {
+        record(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        record(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+        record(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        record(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        record(texture, 1);
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        // every sprite is 4 vertices of 5 floats
+        record(texture, count / 20);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        record(region.getTexture(), 1);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        record(region.getTexture(), 1);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation) {
+        record(region.getTexture(), 1);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, boolean clockwise) {
+        record(region.getTexture(), 1);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        record(region.getTexture(), 1);
+    }
+
+    @Override
+    public void disableBlending() {
+        if (blendingDisabled) return;
+        flush();
+        blendingDisabled = true;
+    }
+
+    @Override
+    public void enableBlending() {
+        if (!blendingDisabled) return;
+        flush();
+        blendingDisabled = false;
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        setBlendFunctionSeparate(srcFunc, dstFunc, srcFunc, dstFunc);
+    }
+
+    @Override
+    public void setBlendFunctionSeparate(int srcFuncColor, int dstFuncColor, int srcFuncAlpha, int dstFuncAlpha) {
+        if (blendSrcFunc == srcFuncColor && blendDstFunc == dstFuncColor
+            && blendSrcFuncAlpha == srcFuncAlpha && blendDstFuncAlpha == dstFuncAlpha) return;
+        flush();
+        blendSrcFunc = srcFuncColor;
+        blendDstFunc = dstFuncColor;
+        blendSrcFuncAlpha = srcFuncAlpha;
+        blendDstFuncAlpha = dstFuncAlpha;
+    }
+
+    @Override
+    public int getBlendSrcFunc() {
+        return blendSrcFunc;
+    }
+
+    @Override
+    public int getBlendDstFunc() {
+        return blendDstFunc;
+    }
+
+    @Override
+    public int getBlendSrcFuncAlpha() {
+        return blendSrcFuncAlpha;
+    }
+
+    @Override
+    public int getBlendDstFuncAlpha() {
+        return blendDstFuncAlpha;
+    }
+
+    @Override
+    public Matrix4 getProjectionMatrix() {
+        return projectionMatrix;
+    }
+
+    @Override
+    public Matrix4 getTransformMatrix() {
+        return transformMatrix;
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        if (drawing) flush();
+        projectionMatrix.set(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        if (drawing) flush();
+        transformMatrix.set(transform);
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        if (drawing) flush();
+        this.shader = shader;
+    }
+
+    @Override
+    public ShaderProgram getShader() {
+        return shader;
+    }
+
+    @Override
+    public boolean isBlendingEnabled() {
+        return !blendingDisabled;
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return drawing;
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
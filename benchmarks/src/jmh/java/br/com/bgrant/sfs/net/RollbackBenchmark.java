@@ -0,0 +1,75 @@
+package br.com.bgrant.sfs.net;
+
+import br.com.bgrant.sfs.benchmarks.BenchmarkAssets;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.objects.MatchSnapshot;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of what {@link RollbackSession} does on a misprediction: restore a snapshot and simulate the ticks since
+ * again, saving a snapshot before each one. Has to stay far below a frame, even for the whole prediction window.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RollbackBenchmark {
+
+    private static final float TIME_STEP = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+
+    @Param({"1", "4", "8"})
+    private int ticks;
+
+    private Match match;
+    private MatchSnapshot[] snapshots;
+    //alternate walking and punching, so the ticks simulated again aren't idle
+    private final byte[] inputs = {InputBits.RIGHT, InputBits.RIGHT | InputBits.PUNCH, InputBits.LEFT, 0};
+
+    @Setup
+    public void setUp() {
+        FighterStore store = new FighterStore(2, BenchmarkAssets.frameData());
+        match = new Match(new Fighter(store, "Slim Stallone", Color.SCARLET),
+            new Fighter(store, "Thin Schwarzenegger", Color.ROYAL));
+        match.startGame();
+        while (match.getRoundState() != Match.RoundState.IN_PROGRESS) {
+            match.update(TIME_STEP);
+        }
+        snapshots = new MatchSnapshot[ticks + 1];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new MatchSnapshot(store.getCapacity());
+        }
+        match.save(snapshots[0]);
+    }
+
+    @Benchmark
+    public MatchSnapshot save() {
+        match.save(snapshots[0]);
+        return snapshots[0];
+    }
+
+    @Benchmark
+    public float rollback() {
+        match.restore(snapshots[0]);
+        for (int t = 0; t < ticks; t++) {
+            match.save(snapshots[t + 1]);
+            int previous = inputs[(t + inputs.length - 1) % inputs.length];
+            int current = inputs[t % inputs.length];
+            InputBits.apply(match.getPlayer(), previous, current, true);
+            InputBits.apply(match.getOpponent(), 0, current, true);
+            match.update(TIME_STEP);
+        }
+        return match.getPlayer().getPositionX();
+    }
+}
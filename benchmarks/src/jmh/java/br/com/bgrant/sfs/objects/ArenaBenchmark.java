@@ -0,0 +1,97 @@
+package br.com.bgrant.sfs.objects;
+
+import br.com.bgrant.sfs.benchmarks.BenchmarkAssets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arena ticks per second for a growing number of fighters, and the contact search through the spatial grid
+ * next to the all pairs check it replaces. The grid scores should drop about linearly with the fighter count,
+ * the all pairs ones quadratically.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ArenaBenchmark {
+
+    private static final float TIME_STEP = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+    private static final long SEED = 42L;
+
+    @Param({"2", "16", "64", "256", "1024"})
+    public int fighters;
+
+    private FighterStore store;
+    private Arena arena;
+    private SpatialGrid grid;
+    private int[] candidates;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = new FighterStore(fighters, BenchmarkAssets.frameData());
+        Fighter[] arenaFighters = new Fighter[fighters];
+        for (int i = 0; i < fighters; i++) {
+            arenaFighters[i] = new Fighter(store, "Fighter " + i, Color.WHITE);
+        }
+        arena = new Arena(arenaFighters, SEED);
+        grid = new SpatialGrid(fighters);
+        candidates = new int[fighters];
+        startFighting();
+    }
+
+    private void startFighting() {
+        arena.start();
+        while (arena.getState() != Arena.State.IN_PROGRESS) {
+            arena.update(TIME_STEP);
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        if (arena.getState() == Arena.State.OVER) {
+            startFighting();
+        }
+        arena.update(TIME_STEP);
+        return arena.getRemaining();
+    }
+
+    @Benchmark
+    public int contactsWithGrid() {
+        grid.build(store);
+        int contacts = 0;
+        for (int i = 0; i < fighters; i++) {
+            float x = store.positionX[i];
+            float y = store.positionY[i];
+            int count = grid.query(x, y, candidates);
+            for (int n = 0; n < count; n++) {
+                int j = candidates[n];
+                if (Match.areWithinContactDistance(x, y, store.positionX[j], store.positionY[j])) {
+                    contacts++;
+                }
+            }
+        }
+        return contacts;
+    }
+
+    @Benchmark
+    public int contactsAllPairs() {
+        int contacts = 0;
+        for (int i = 0; i < fighters; i++) {
+            float x = store.positionX[i];
+            float y = store.positionY[i];
+            for (int j = 0; j < fighters; j++) {
+                if (Match.areWithinContactDistance(x, y, store.positionX[j], store.positionY[j])) {
+                    contacts++;
+                }
+            }
+        }
+        return contacts;
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.bgrant.sfs.objects;
+
+import br.com.bgrant.sfs.benchmarks.BenchmarkAssets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of a single fighter simulation step and of the attack window check.
+ */
+@State(Scope.Thread)
+public class FighterBenchmark {
+
+    private static final float TIME_STEP = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+
+    private Fighter walking;
+    private Fighter attacking;
+    private Fighter punching;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        FighterStore store = new FighterStore(3, BenchmarkAssets.frameData());
+        walking = new Fighter(store, "Walking", Color.SCARLET);
+        attacking = new Fighter(store, "Attacking", Color.ROYAL);
+        punching = new Fighter(store, "Punching", Color.WHITE);
+
+        walking.getReady(Match.PLAYER_START_POSITION_X, Match.FIGHTER_START_POSITION_Y);
+        walking.moveRight();
+        walking.moveUp();
+        attacking.getReady(Match.OPPONENT_START_POSITION_X, Match.FIGHTER_START_POSITION_Y);
+        // stop in the middle of the punch, where the attack is active
+        punching.getReady(Match.PLAYER_START_POSITION_X, Match.FIGHTER_START_POSITION_Y);
+        punching.punch();
+        punching.update(store.getFrameData().getAnimationDuration(Fighter.State.PUNCH) * 0.5f);
+    }
+
+    @Benchmark
+    public float updateWalking() {
+        walking.update(TIME_STEP);
+        return walking.getPositionX();
+    }
+
+    @Benchmark
+    public Fighter.State updateAttacking() {
+        // punches again as soon as the previous punch is over
+        attacking.punch();
+        attacking.update(TIME_STEP);
+        return attacking.getState();
+    }
+
+    @Benchmark
+    public boolean isAttackActive() {
+        return punching.isAttackActive();
+    }
+}
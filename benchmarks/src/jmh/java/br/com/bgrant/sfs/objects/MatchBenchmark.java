@@ -0,0 +1,72 @@
+package br.com.bgrant.sfs.objects;
+
+import br.com.bgrant.sfs.benchmarks.BenchmarkAssets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the match hot paths: the hit check, the distance and ring bounds helpers and a full simulation tick.
+ */
+@State(Scope.Thread)
+public class MatchBenchmark {
+
+    private static final float TIME_STEP = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+
+    private FighterStore store;
+    private Fighter player;
+    private Fighter opponent;
+    private Match match;
+
+    @Setup
+    public void setUp() {
+        store = new FighterStore(2, BenchmarkAssets.frameData());
+        player = new Fighter(store, "Slim Stallone", Color.SCARLET);
+        opponent = new Fighter(store, "Thin Schwarzenegger", Color.ROYAL);
+        match = new Match(player, opponent);
+        startFighting();
+    }
+
+    private void startFighting() {
+        match.startGame();
+        while (match.getRoundState() != Match.RoundState.IN_PROGRESS) {
+            match.update(TIME_STEP);
+        }
+        // put the fighters within contact distance of each other
+        store.positionX[player.getIndex()] = store.positionX[opponent.getIndex()] - Match.FIGHTER_CONTACT_DISTANCE_X * 0.5f;
+    }
+
+    @Benchmark
+    public float fighting() {
+        match.fighting();
+        return opponent.getLife();
+    }
+
+    @Benchmark
+    public boolean areWithinContactDistance() {
+        return Match.areWithinContactDistance(player, opponent);
+    }
+
+    @Benchmark
+    public float keepWithinRingBounds() {
+        // move the fighter outside of the ring, so the bounds are actually enforced
+        store.positionY[player.getIndex()] = Match.RING_MAX_Y + 1f;
+        Match.keepWithinRingBounds(store, player.getIndex());
+        return store.positionY[player.getIndex()];
+    }
+
+    @Benchmark
+    public int update() {
+        if (match.getGameState() == Match.GameState.GAME_OVER) {
+            startFighting();
+        }
+        // keep both fighters busy, so the tick exercises attacks and hits
+        player.punch();
+        opponent.kick();
+        match.update(TIME_STEP);
+        return match.getRoundsWon();
+    }
+}
@@ -0,0 +1,130 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.SFSGame;
+import br.com.bgrant.sfs.benchmarks.BenchmarkAssets;
+import br.com.bgrant.sfs.benchmarks.HeadlessGdx;
+import br.com.bgrant.sfs.benchmarks.RecordingBatch;
+import br.com.bgrant.sfs.objects.AnimationSet;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.resources.Assets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.SynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Single player matches of real {@link GameScreen}s on the headless backend, each frame run by
+ * {@link GameScreen#renderFrame(float, com.badlogic.gdx.graphics.g2d.Batch)} into a {@link RecordingBatch}, like the
+ * game does at the tick rate. The assets are loaded from the classpath, except the fonts, which are libGDX's built-in
+ * font like in {@link HudFixture}, and the sounds are the mock sounds of the backend. The player presses random keys.
+ * The screen writes its telemetry and replay files into the working directory.
+ */
+class GameFrameFixture {
+
+    private static final float TIME_STEP = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+    private static final int[] KEYS = {Input.Keys.LEFT, Input.Keys.RIGHT, Input.Keys.UP, Input.Keys.DOWN,
+        Input.Keys.B, Input.Keys.F, Input.Keys.V};
+    //the player presses a key about every this many frames
+    private static final int FRAMES_PER_PRESS = 10;
+    private static final int SCREEN_WIDTH = 1280, SCREEN_HEIGHT = 720;
+
+    final RecordingBatch batch = new RecordingBatch();
+    private final SFSGame game = new SFSGame();
+    private final RandomXS128 random = new RandomXS128(1);
+    private GameScreen screen;
+    private int pressedKey = -1;
+
+    GameFrameFixture() {
+        HeadlessGdx.initialize();
+        game.frameData = BenchmarkAssets.frameData();
+        game.assets = new Assets();
+        //built-in fonts instead of the FreeType ones, which need the FreeType natives and the font cache
+        game.assets.assetManager.setLoader(BitmapFont.class, ".ttf",
+            new SynchronousAssetLoader<BitmapFont, FreetypeFontLoader.FreeTypeFontLoaderParameter>(
+                new InternalFileHandleResolver()) {
+                @Override
+                public BitmapFont load(AssetManager assetManager, String fileName, FileHandle file,
+                                       FreetypeFontLoader.FreeTypeFontLoaderParameter parameter) {
+                    return HudFixture.createFont();
+                }
+
+                @Override
+                @SuppressWarnings("rawtypes")
+                public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file,
+                                                              FreetypeFontLoader.FreeTypeFontLoaderParameter parameter) {
+                    return null;
+                }
+            });
+    }
+
+    /**
+     * Loads the screen's assets and shows a new screen with a new match, like the game does after loading.
+     */
+    void startMatch() {
+        if (screen != null) throw new IllegalStateException("The match has already started");
+        for (Assets.Group group : GameScreen.ASSET_GROUPS) {
+            game.assets.load(group);
+        }
+        game.assets.assetManager.finishLoading();
+
+        game.fighterStore = new FighterStore(2, game.frameData);
+        game.fighterAnimations = new AnimationSet(game.assets.assetManager.get(Assets.FIGHTER_ATLAS), game.frameData);
+        game.player = new Fighter(game, "Slim Stallone", Color.SCARLET);
+        game.opponent = new Fighter(game, "Thin Schwarzenegger", Color.ROYAL);
+        screen = new GameScreen(game) {
+            //there is no screen, and the calls to the no-op GL would allocate
+            @Override
+            void clearScreen() {
+            }
+
+            @Override
+            int getRenderCalls() {
+                return batch.renderCalls;
+            }
+        };
+        screen.show();
+        screen.resize(SCREEN_WIDTH, SCREEN_HEIGHT);
+        pressedKey = -1;
+    }
+
+    Match getMatch() {
+        return screen.getMatch();
+    }
+
+    boolean isGameOver() {
+        return screen.getMatch().getGameState() == Match.GameState.GAME_OVER;
+    }
+
+    /**
+     * Runs one frame of the screen with one simulation tick.
+     */
+    void frame() {
+        if (random.nextInt(FRAMES_PER_PRESS) == 0) {
+            if (pressedKey != -1) {
+                screen.keyUp(pressedKey);
+            }
+            pressedKey = KEYS[random.nextInt(KEYS.length)];
+            screen.keyDown(pressedKey);
+        }
+        screen.renderFrame(TIME_STEP, batch);
+    }
+
+    /**
+     * Hides and disposes the screen, which unloads its assets.
+     */
+    void endMatch() {
+        screen.hide();
+        screen.dispose();
+        screen = null;
+    }
+}
@@ -0,0 +1,37 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.benchmarks.RecordingBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Cost of drawing the HUD of a round in progress into a {@link RecordingBatch}, so no GPU work is measured.
+ */
+@State(Scope.Thread)
+public class HudBenchmark {
+
+    private RecordingBatch batch;
+    private HudFixture fixture;
+
+    @Setup
+    public void setUp() {
+        batch = new RecordingBatch();
+        fixture = new HudFixture();
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.dispose();
+    }
+
+    @Benchmark
+    public int renderHud() {
+        batch.begin();
+        fixture.hud.render(batch);
+        batch.end();
+        return batch.sprites;
+    }
+}
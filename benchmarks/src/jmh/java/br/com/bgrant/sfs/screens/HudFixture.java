@@ -0,0 +1,60 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.benchmarks.BenchmarkAssets;
+import br.com.bgrant.sfs.benchmarks.HeadlessGdx;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * A {@link Hud} of a round in progress, created on the headless backend.
+ * It uses libGDX's built-in font instead of the FreeType fonts, which draws the same number of glyphs,
+ * and a separate texture for the solid pixel, so texture switches happen like in the game.
+ */
+class HudFixture implements Disposable {
+
+    private static final float TIME_STEP = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+
+    final Match match;
+    final Hud hud;
+    private final BitmapFont smallFont, mediumFont;
+    private final Texture solidPixelTexture;
+
+    HudFixture() {
+        HeadlessGdx.initialize();
+        smallFont = createFont();
+        mediumFont = createFont();
+        solidPixelTexture = new Texture(1, 1, Pixmap.Format.RGBA8888);
+
+        FighterStore store = new FighterStore(2, BenchmarkAssets.frameData());
+        match = new Match(new Fighter(store, "Slim Stallone", Color.SCARLET),
+            new Fighter(store, "Thin Schwarzenegger", Color.ROYAL));
+        match.startGame();
+        while (match.getRoundState() != Match.RoundState.IN_PROGRESS) {
+            match.update(TIME_STEP);
+        }
+        hud = new Hud(match, smallFont, mediumFont, new TextureRegion(solidPixelTexture));
+        hud.resize(GlobalVariables.WORLD_WIDTH, GlobalVariables.WORLD_HEIGHT);
+    }
+
+    static BitmapFont createFont() {
+        BitmapFont font = new BitmapFont();
+        font.getData().setScale(GlobalVariables.WORLD_SCALE);
+        font.setUseIntegerPositions(false);
+        return font;
+    }
+
+    @Override
+    public void dispose() {
+        smallFont.dispose();
+        mediumFont.dispose();
+        solidPixelTexture.dispose();
+    }
+}
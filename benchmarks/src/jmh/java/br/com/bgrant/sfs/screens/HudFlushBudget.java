@@ -0,0 +1,41 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.benchmarks.RecordingBatch;
+
+/**
+ * Fails when drawing the HUD takes more batch flushes than its budget, or ends and begins the batch itself.
+ * The budget is one flush per texture: the solid pixel, the small font and the medium font.
+ * Run by the checkHudFlushes task, which is part of check.
+ */
+public class HudFlushBudget {
+
+    private static final int MAX_HUD_RENDER_CALLS = 3;
+    private static final int FRAMES = 600;
+
+    public static void main(String[] args) {
+        HudFixture fixture = new HudFixture();
+        RecordingBatch batch = new RecordingBatch();
+        int maxRenderCalls = 0;
+        for (int frame = 0; frame < FRAMES; frame++) {
+            batch.begin();
+            fixture.hud.render(batch);
+            batch.end();
+            maxRenderCalls = Math.max(maxRenderCalls, batch.renderCalls);
+        }
+        fixture.dispose();
+
+        if (batch.begins != FRAMES) {
+            fail("the HUD ended and began the batch " + (batch.begins - FRAMES) + " times in " + FRAMES + " frames");
+        }
+        if (maxRenderCalls > MAX_HUD_RENDER_CALLS) {
+            fail("the HUD took " + maxRenderCalls + " flushes in a frame, the budget is " + MAX_HUD_RENDER_CALLS);
+        }
+        System.out.println("HUD flushes per frame: " + maxRenderCalls + " (budget " + MAX_HUD_RENDER_CALLS + ")");
+        System.exit(0);
+    }
+
+    private static void fail(String message) {
+        System.err.println("HUD flush budget exceeded: " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.bgrant.sfs.screens;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Fails when a frame of a running match allocates on the game thread once the game has warmed up. Every frame is a
+ * frame of a real {@link GameScreen} run by a {@link GameFrameFixture}, and the bytes the thread allocated around it
+ * are read from the {@link com.sun.management.ThreadMXBean}. Whole matches are played on their own screens first, so
+ * the JIT has settled, then the frames of the first part of the next match fill its pools and lazily created objects
+ * and the rest of the match is measured, except the frame that ends it.
+ * Run by the checkSteadyStateAllocations task, which is part of check, on C1 only.
+ */
+public class SteadyStateAllocations {
+
+    private static final int WARMUP_MATCHES = 2;
+    private static final int WARMUP_FRAMES = 2000;
+    //a match can't last longer than this, at most three rounds of 99 seconds
+    private static final int MAX_MATCH_FRAMES = 30000;
+    private static final int FRAMES_REPORTED = 10;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("This JVM doesn't report allocated bytes per thread");
+            System.exit(1);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        GameFrameFixture fixture = new GameFrameFixture();
+        for (int match = 0; match < WARMUP_MATCHES; match++) {
+            fixture.startMatch();
+            playUntilGameOver(fixture);
+            fixture.endMatch();
+        }
+        fixture.startMatch();
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            fixture.frame();
+        }
+
+        //what reading the counter costs, taken off every measurement
+        long first = threads.getThreadAllocatedBytes(thread);
+        long overhead = threads.getThreadAllocatedBytes(thread) - first;
+        long totalBytes = 0;
+        int allocatingFrames = 0;
+        int frames = 0;
+        while (!fixture.isGameOver()) {
+            if (frames == MAX_MATCH_FRAMES) {
+                System.err.println("The match didn't end in " + MAX_MATCH_FRAMES + " frames");
+                System.exit(1);
+            }
+            long before = threads.getThreadAllocatedBytes(thread);
+            fixture.frame();
+            long bytes = threads.getThreadAllocatedBytes(thread) - before - overhead;
+            //the frame that ends the match closes the replay file
+            if (bytes > 0 && !fixture.isGameOver()) {
+                totalBytes += bytes;
+                if (allocatingFrames++ < FRAMES_REPORTED) {
+                    System.err.println("frame " + frames + " allocated " + bytes + " bytes, tick "
+                        + fixture.getMatch().getTick() + ", round " + fixture.getMatch().getRoundState());
+                }
+            }
+            frames++;
+        }
+        fixture.endMatch();
+
+        if (allocatingFrames > 0) {
+            System.err.println("Steady state allocations: " + allocatingFrames + " of " + frames
+                + " frames allocated " + totalBytes + " bytes");
+            System.exit(1);
+        }
+        System.out.println("Steady state allocations: none in " + frames + " frames");
+        System.exit(0);
+    }
+
+    private static void playUntilGameOver(GameFrameFixture fixture) {
+        for (int frame = 0; frame < MAX_MATCH_FRAMES && !fixture.isGameOver(); frame++) {
+            fixture.frame();
+        }
+    }
+}
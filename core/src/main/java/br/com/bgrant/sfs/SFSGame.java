@@ -1,12 +1,22 @@
 package br.com.bgrant.sfs;
 
+import br.com.bgrant.sfs.debug.FramePacer;
+import br.com.bgrant.sfs.debug.StartupTracer;
+import br.com.bgrant.sfs.net.VersusConfig;
+import br.com.bgrant.sfs.objects.AnimationSet;
 import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.FrameData;
 import br.com.bgrant.sfs.resources.Assets;
+import br.com.bgrant.sfs.screens.ArenaScreen;
 import br.com.bgrant.sfs.screens.GameScreen;
+import br.com.bgrant.sfs.screens.LoadingScreen;
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+
+import java.io.File;
 
 /**
  * {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms.
@@ -29,34 +39,107 @@ public class SFSGame extends Game {
      * The batch must be properly disposed when no longer needed to prevent memory leaks.
      */
     public SpriteBatch batch;
-    public ShapeRenderer shapeRenderer;
     public Assets assets;
     //    private Texture image;
     //Screens
+    private LoadingScreen loadingScreen;
     public GameScreen gameScreen;
+    public ArenaScreen arenaScreen;
 
     //fighters
+    public FrameData frameData;
+    public FighterStore fighterStore;
+    //built once for all fighters
+    public AnimationSet fighterAnimations;
     public Fighter player, opponent;
+    //versus match settings, null in single player
+    public final VersusConfig versus;
+    //replay file to watch instead of playing, or null
+    public final File replayFile;
+    //number of fighters in a free-for-all arena, 0 for a normal match
+    public final int arenaSize;
+    //whether single player matches run on their own thread
+    public final boolean threadedSimulation;
+    //paces the frames and records their times, null on backends that pace themselves
+    public final FramePacer framePacer;
+    //colors the arena fighters cycle through, the player keeps its own
+    private static final Color[] ARENA_COLORS = {Color.ROYAL, Color.FOREST, Color.GOLD, Color.ORANGE, Color.PURPLE,
+        Color.TEAL, Color.PINK, Color.LIME, Color.BROWN, Color.SKY};
+
+    //startup tracing, the backend init span is opened by the launcher
+    public static final String BACKEND_INIT_SPAN = "backend init";
+    private boolean firstFrameRendered;
+
+
+    public SFSGame() {
+        this(null, null, 0, false, null);
+    }
 
+    public SFSGame(VersusConfig versus, File replayFile, int arenaSize, boolean threadedSimulation,
+                   FramePacer framePacer) {
+        this.versus = versus;
+        this.replayFile = replayFile;
+        this.arenaSize = arenaSize;
+        this.threadedSimulation = threadedSimulation;
+        this.framePacer = framePacer;
+    }
 
     @Override
     public void create() {
+        StartupTracer.end(BACKEND_INIT_SPAN);
+        StartupTracer.begin("SFSGame.create");
         batch = new SpriteBatch();
-        shapeRenderer = new ShapeRenderer();
 //        image = new Texture("textures/Background.png");
         this.assets = new Assets();
-        this.assets.load();
-        this.assets.assetManager.finishLoading();
+        this.frameData = FrameData.load(Gdx.files.internal(FrameData.FILE));
+        //load the game screen assets a few milliseconds per frame instead of blocking before the first frame
+        if (arenaSize > 0) {
+            this.loadingScreen = new LoadingScreen(this, this::startArena, ArenaScreen.ASSET_GROUPS);
+        } else {
+            this.loadingScreen = new LoadingScreen(this, this::startGame, GameScreen.ASSET_GROUPS);
+        }
+        this.setScreen(this.loadingScreen);
+        StartupTracer.end("SFSGame.create");
+    }
+
+    private void startGame() {
         //initializing fighters
+        this.fighterStore = new FighterStore(2, frameData);
+        this.fighterAnimations = new AnimationSet(assets.assetManager.get(Assets.FIGHTER_ATLAS), frameData);
+        StartupTracer.begin("Fighter player");
         this.player = new Fighter(this,"Slim Stallone", Color.SCARLET);
+        StartupTracer.end("Fighter player");
+        StartupTracer.begin("Fighter opponent");
         this.opponent = new Fighter(this,"Thin Schwarzenegger", Color.ROYAL);
+        StartupTracer.end("Fighter opponent");
         //initialize the game screen
         this.gameScreen = new GameScreen(this);
         this.setScreen(this.gameScreen);
+        //the loading screen is no longer needed
+        this.loadingScreen.dispose();
+        this.loadingScreen = null;
+    }
+
+    private void startArena() {
+        this.fighterStore = new FighterStore(arenaSize, frameData);
+        this.fighterAnimations = new AnimationSet(assets.assetManager.get(Assets.FIGHTER_ATLAS), frameData);
+        Fighter[] fighters = new Fighter[arenaSize];
+        fighters[0] = this.player = new Fighter(this, "Slim Stallone", Color.SCARLET);
+        for (int i = 1; i < arenaSize; i++) {
+            fighters[i] = new Fighter(this, "Fighter " + i, ARENA_COLORS[(i - 1) % ARENA_COLORS.length]);
+        }
+        this.arenaScreen = new ArenaScreen(this, fighters);
+        this.setScreen(this.arenaScreen);
+        this.loadingScreen.dispose();
+        this.loadingScreen = null;
     }
 
     @Override
     public void render() {
+        if (!firstFrameRendered) {
+            firstFrameRendered = true;
+            StartupTracer.mark("first frame");
+        }
 //        ScreenUtils.clear(0.15f, 0.15f, 0.2f, 1f);
 //        batch.begin();
 ////        batch.draw(image, 140, 210);
@@ -64,13 +147,27 @@ public class SFSGame extends Game {
 //        batch.draw(image, Gdx.graphics.getWidth() / 2f - image.getWidth() / 2f, Gdx.graphics.getHeight() / 2f - image.getHeight() / 2f);
 //        batch.end();
         super.render();
+        if (framePacer != null) {
+            framePacer.endFrame();
+        }
     }
 
     @Override
     public void dispose() {
+        if (this.loadingScreen != null) {
+            this.loadingScreen.dispose();
+        }
+        if (this.gameScreen != null) {
+            this.gameScreen.dispose();
+        }
+        if (this.arenaScreen != null) {
+            this.arenaScreen.dispose();
+        }
         batch.dispose();
-        shapeRenderer.dispose();
 //        image.dispose();
         this.assets.dispose();
+        if (framePacer != null) {
+            framePacer.logSummary();
+        }
     }
 }
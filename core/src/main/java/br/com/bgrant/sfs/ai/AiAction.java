@@ -0,0 +1,59 @@
+package br.com.bgrant.sfs.ai;
+
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.Match;
+
+/**
+ * What a computer fighter does until its next decision, the same choices a player has on the keyboard.
+ */
+public enum AiAction {
+    WAIT,
+    APPROACH,
+    RETREAT,
+    PUNCH,
+    KICK,
+    BLOCK;
+
+    static final AiAction[] VALUES = values();
+
+    /**
+     * @return the horizontal movement the action wants, -1, 0 or 1
+     */
+    public float getMovementX(Fighter self, Fighter other) {
+        float xDistance = other.getPositionX() - self.getPositionX();
+        if (this == APPROACH) {
+            return Math.abs(xDistance) > Match.FIGHTER_CONTACT_DISTANCE_X * 0.8f ? Math.signum(xDistance) : 0;
+        } else if (this == RETREAT) {
+            return xDistance < 0 ? 1 : -1;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the vertical movement the action wants, -1, 0 or 1
+     */
+    public float getMovementY(Fighter self, Fighter other) {
+        float yDistance = other.getPositionY() - self.getPositionY();
+        if (this == APPROACH && Math.abs(yDistance) > Match.FIGHTER_CONTACT_DISTANCE_Y * 0.5f) {
+            return Math.signum(yDistance);
+        }
+        return 0;
+    }
+
+    /**
+     * Makes the fighter do the action right away, without going through its input buffer.
+     */
+    void apply(Fighter self, Fighter other) {
+        if (this != BLOCK) {
+            self.stopBlocking();
+        }
+        self.getStore().setMovement(self.getIndex(), getMovementX(self, other), getMovementY(self, other));
+        if (this == PUNCH) {
+            self.punch();
+        } else if (this == KICK) {
+            self.kick();
+        } else if (this == BLOCK) {
+            self.block();
+        }
+    }
+}
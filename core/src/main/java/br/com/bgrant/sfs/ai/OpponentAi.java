@@ -0,0 +1,147 @@
+package br.com.bgrant.sfs.ai;
+
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FrameData;
+import br.com.bgrant.sfs.objects.InputBuffer;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+
+/**
+ * Computer controller of the opponent. Every {@link #DECISION_TICKS} ticks it hands a snapshot of the match to a
+ * search running on a worker thread, with more time to think on a harder difficulty, and turns the action it comes
+ * back with into commands in the opponent's input buffer, like key presses. Decisions are picked up without locking
+ * on the next tick they are ready. If the worker hasn't answered by the next decision, the previous action is
+ * repeated with the current positions, so a slow machine makes the opponent dumber, never the game slower.
+ */
+public class OpponentAi {
+
+    /**
+     * Told about every command given to the opponent, so it can be recorded.
+     */
+    public interface CommandListener {
+        void commandQueued(long tick, InputBuffer.Command command);
+    }
+
+    public static final int DECISION_TICKS = 12;
+    //search time of each decision, indexed by difficulty ordinal
+    private static final long[] BUDGET_NANOS = {250000L, 2000000L, 8000000L};
+
+    private final Match match;
+    private final SearchWorker worker;
+    private final float timeStep;
+    private CommandListener commandListener;
+
+    //action followed until the next decision
+    private AiAction plan = AiAction.WAIT;
+    //tick of the request waiting for an answer, or -1
+    private long pendingTick = -1;
+    private int ticksUntilDecision;
+
+    //statistics
+    private int decisions, lateDecisions;
+
+    public OpponentAi(Match match, FrameData frameData, float timeStep) {
+        this.match = match;
+        this.timeStep = timeStep;
+        this.worker = new SearchWorker(frameData);
+        Thread thread = new Thread(worker, "OpponentAi");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void setCommandListener(CommandListener commandListener) {
+        this.commandListener = commandListener;
+    }
+
+    public static long getBudgetNanos(GlobalVariables.Difficult difficulty) {
+        return BUDGET_NANOS[difficulty.ordinal()];
+    }
+
+    public int getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * @return how many times the worker didn't decide in time and the previous action was repeated
+     */
+    public int getLateDecisions() {
+        return lateDecisions;
+    }
+
+    /**
+     * Call on the game thread before every match update.
+     */
+    public void update() {
+        if (match.getRoundState() != Match.RoundState.IN_PROGRESS) {
+            plan = AiAction.WAIT;
+            pendingTick = -1;
+            ticksUntilDecision = 0;
+            return;
+        }
+
+        long decision = worker.getDecision();
+        if (pendingTick >= 0 && decision >>> SearchWorker.ACTION_BITS == pendingTick) {
+            plan = AiAction.VALUES[(int) (decision & SearchWorker.ACTION_MASK)];
+            pendingTick = -1;
+            decisions++;
+            give(plan);
+        }
+
+        if (--ticksUntilDecision <= 0) {
+            ticksUntilDecision = DECISION_TICKS;
+            if (pendingTick >= 0) {
+                //the worker is late, keep following the previous plan
+                lateDecisions++;
+                give(plan);
+            }
+            SearchWorker.Request request = worker.getRequest();
+            match.save(request.snapshot);
+            request.tick = match.getTick();
+            request.budgetNanos = getBudgetNanos(match.getDifficulty());
+            request.timeStep = timeStep;
+            pendingTick = request.tick;
+            worker.submit();
+        }
+    }
+
+    // turns the action into the commands a player would press for it
+    private void give(AiAction action) {
+        Fighter self = match.getOpponent();
+        Fighter other = match.getPlayer();
+        if (action != AiAction.BLOCK) {
+            queue(InputBuffer.Command.STOP_BLOCKING);
+        }
+        float x = action.getMovementX(self, other);
+        float y = action.getMovementY(self, other);
+        float currentX = self.getStore().movementX[self.getIndex()];
+        float currentY = self.getStore().movementY[self.getIndex()];
+        if (x != currentX) {
+            queue(x < 0 ? InputBuffer.Command.MOVE_LEFT : x > 0 ? InputBuffer.Command.MOVE_RIGHT
+                : currentX < 0 ? InputBuffer.Command.STOP_MOVING_LEFT : InputBuffer.Command.STOP_MOVING_RIGHT);
+        }
+        if (y != currentY) {
+            queue(y < 0 ? InputBuffer.Command.MOVE_DOWN : y > 0 ? InputBuffer.Command.MOVE_UP
+                : currentY < 0 ? InputBuffer.Command.STOP_MOVING_DOWN : InputBuffer.Command.STOP_MOVING_UP);
+        }
+        if (action == AiAction.PUNCH) {
+            queue(InputBuffer.Command.PUNCH);
+        } else if (action == AiAction.KICK) {
+            queue(InputBuffer.Command.KICK);
+        } else if (action == AiAction.BLOCK) {
+            queue(InputBuffer.Command.BLOCK);
+        }
+    }
+
+    private void queue(InputBuffer.Command command) {
+        if (match.getOpponentInput().add(command, match.getTick()) && commandListener != null) {
+            commandListener.commandQueued(match.getTick(), command);
+        }
+    }
+
+    /**
+     * Stops the worker thread, without waiting for it.
+     */
+    public void dispose() {
+        worker.stop();
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.bgrant.sfs.ai;
+
+import br.com.bgrant.sfs.concurrent.TripleBuffer;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.FrameData;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.objects.MatchSnapshot;
+import com.badlogic.gdx.math.RandomXS128;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Chooses the opponent's next action on its own thread with Monte-Carlo rollouts: for every action it restores a
+ * copy of the match to the requested state, lets the opponent do the action and both fighters act at random
+ * afterwards, and scores how the lives and rounds changed. It keeps rolling out until the time budget of the
+ * request is spent, then publishes the action with the best average score.
+ * Requests arrive through a {@link TripleBuffer} and the decision is a single volatile word, so the game thread never
+ * waits for the worker.
+ */
+class SearchWorker implements Runnable {
+
+    static final class Request {
+        final MatchSnapshot snapshot = new MatchSnapshot(2);
+        long tick;
+        long budgetNanos;
+        float timeStep;
+    }
+
+    static final int ACTION_BITS = 3;
+    static final long ACTION_MASK = (1 << ACTION_BITS) - 1;
+    //how far a rollout looks ahead
+    private static final int HORIZON_TICKS = 90;
+    //a won or lost round outweighs any change of life
+    private static final float ROUND_SCORE = 2 * Fighter.MAX_LIFE;
+
+    private final TripleBuffer<Request> requests = new TripleBuffer<>(Request::new);
+    //tick of the request shifted left by ACTION_BITS, plus the chosen action
+    private volatile long decision = -1;
+    private volatile boolean running = true;
+    private volatile Thread thread;
+
+    //copy of the match the rollouts run on, only used by the worker thread
+    private final Match match;
+    private final RandomXS128 random = new RandomXS128();
+    private final float[] scores = new float[AiAction.VALUES.length];
+    private final int[] rollouts = new int[AiAction.VALUES.length];
+
+    SearchWorker(FrameData frameData) {
+        FighterStore store = new FighterStore(2, frameData);
+        match = new Match(new Fighter(store, "Player", null), new Fighter(store, "Opponent", null));
+    }
+
+    /**
+     * Game thread side: the request to fill in before {@link #submit()}.
+     */
+    Request getRequest() {
+        return requests.getBack();
+    }
+
+    void submit() {
+        requests.publish();
+        Thread worker = thread;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    long getDecision() {
+        return decision;
+    }
+
+    void stop() {
+        running = false;
+        Thread worker = thread;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    @Override
+    public void run() {
+        thread = Thread.currentThread();
+        while (running) {
+            if (!requests.update()) {
+                //submit and stop unpark it, a request published before parking makes park return at once
+                LockSupport.park(this);
+                continue;
+            }
+            Request request = requests.getFront();
+            AiAction action = search(request);
+            decision = request.tick << ACTION_BITS | action.ordinal();
+        }
+    }
+
+    AiAction search(Request request) {
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = 0f;
+            rollouts[i] = 0;
+        }
+        long deadline = System.nanoTime() + request.budgetNanos;
+        do {
+            for (AiAction action : AiAction.VALUES) {
+                scores[action.ordinal()] += rollout(request.snapshot, action, request.timeStep);
+                rollouts[action.ordinal()]++;
+            }
+        } while (System.nanoTime() < deadline && running);
+
+        AiAction best = AiAction.WAIT;
+        float bestScore = -Float.MAX_VALUE;
+        for (AiAction action : AiAction.VALUES) {
+            float score = scores[action.ordinal()] / rollouts[action.ordinal()];
+            if (score > bestScore) {
+                best = action;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    // plays the action and random ones after it, the score is from the point of view of the opponent
+    private float rollout(MatchSnapshot start, AiAction first, float timeStep) {
+        match.restore(start);
+        match.getPlayerInput().clear();
+        match.getOpponentInput().clear();
+        Fighter self = match.getOpponent();
+        Fighter other = match.getPlayer();
+        float selfLife = self.getLife(), otherLife = other.getLife();
+        int roundsWon = match.getRoundsLost(), roundsLost = match.getRoundsWon();
+
+        AiAction action = first;
+        for (int tick = 0; tick < HORIZON_TICKS; tick++) {
+            if (tick % OpponentAi.DECISION_TICKS == 0 && match.getRoundState() == Match.RoundState.IN_PROGRESS) {
+                if (tick > 0) {
+                    action = randomAction();
+                }
+                action.apply(self, other);
+                randomAction().apply(other, self);
+            }
+            match.update(timeStep);
+        }
+
+        int rounds = (match.getRoundsLost() - roundsWon) - (match.getRoundsWon() - roundsLost);
+        return (self.getLife() - selfLife) - (other.getLife() - otherLife) + rounds * ROUND_SCORE;
+    }
+
+    private AiAction randomAction() {
+        return AiAction.VALUES[random.nextInt(AiAction.VALUES.length)];
+    }
+}
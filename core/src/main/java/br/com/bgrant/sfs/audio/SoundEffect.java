@@ -0,0 +1,30 @@
+package br.com.bgrant.sfs.audio;
+
+import br.com.bgrant.sfs.resources.Assets;
+
+/**
+ * Sound effects of the game and how the {@link SoundEngine} shares its voices between them. A request can take the
+ * voice of a lower priority effect, and never plays more copies at once than the effect allows.
+ */
+public enum SoundEffect {
+    HIT(Assets.HIT_SOUND, 2, 2, 0.58f),
+    BLOCK(Assets.BLOCK_SOUND, 2, 2, 0.39f),
+    CHEER(Assets.CHEER_SOUND, 1, 1, 4.54f),
+    BOO(Assets.BOO_SOUND, 1, 1, 7.52f),
+    CLICK(Assets.CLICK_SOUND, 3, 1, 0.37f);
+
+    static final SoundEffect[] VALUES = values();
+
+    public final String fileName;
+    public final int priority;
+    public final int maxVoices;
+    //length of the decoded sound, Sound can't tell when it has finished playing
+    public final float duration;
+
+    SoundEffect(String fileName, int priority, int maxVoices, float duration) {
+        this.fileName = fileName;
+        this.priority = priority;
+        this.maxVoices = maxVoices;
+        this.duration = duration;
+    }
+}
@@ -0,0 +1,228 @@
+package br.com.bgrant.sfs.audio;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+
+/**
+ * Plays the {@link SoundEffect}s from a fixed pool of voices. Game code requests sounds with {@link #play} while it
+ * runs and {@link #update(float)} starts them once per frame, so a frame with many hits starts each effect once at
+ * the loudest volume requested. When the pool is full a request takes the voice of an effect with lower priority,
+ * or the oldest copy of itself once the effect plays as many copies as it allows, and is dropped otherwise.
+ * The sounds are decoded when they are loaded by the {@link AssetManager}, so playing one never touches the file.
+ * Nothing here uses the Gdx globals, so it works the same with the headless backend's mock sounds.
+ */
+public class SoundEngine {
+
+    //fewer than the sources of the desktop backend, which also plays the music
+    public static final int VOICES = 8;
+    private static final int FREE = -1;
+
+    //loaded sounds, indexed by SoundEffect ordinal
+    private final Sound[] sounds;
+    //effects from the highest priority to the lowest, the order requests are started in
+    private final SoundEffect[] startOrder;
+
+    //voices, FREE or the ordinal of the effect playing
+    private final int[] voiceEffect = new int[VOICES];
+    private final long[] voiceId = new long[VOICES];
+    private final float[] voiceStart = new float[VOICES];
+    private final float[] voiceEnd = new float[VOICES];
+    //voices playing each effect
+    private final int[] playing;
+
+    //requests of this frame, the volume is 0 when the effect wasn't requested
+    private final float[] requestVolume;
+    private final float[] requestPan;
+
+    private float time;
+    private float masterVolume = 1f;
+
+    //statistics
+    private int played, stolen, dropped;
+
+    public SoundEngine(AssetManager assetManager) {
+        this(loadedSounds(assetManager));
+    }
+
+    /**
+     * @param sounds the sound of every effect, indexed by {@link SoundEffect} ordinal
+     */
+    public SoundEngine(Sound[] sounds) {
+        if (sounds.length != SoundEffect.VALUES.length) {
+            throw new IllegalArgumentException("Expected " + SoundEffect.VALUES.length + " sounds but got " + sounds.length);
+        }
+        this.sounds = sounds;
+        this.playing = new int[sounds.length];
+        this.requestVolume = new float[sounds.length];
+        this.requestPan = new float[sounds.length];
+        //insertion sort by priority, stable so equal priorities keep their declaration order
+        startOrder = SoundEffect.values();
+        for (int i = 1; i < startOrder.length; i++) {
+            SoundEffect effect = startOrder[i];
+            int j = i - 1;
+            for (; j >= 0 && startOrder[j].priority < effect.priority; j--) {
+                startOrder[j + 1] = startOrder[j];
+            }
+            startOrder[j + 1] = effect;
+        }
+        for (int i = 0; i < VOICES; i++) {
+            voiceEffect[i] = FREE;
+        }
+    }
+
+    private static Sound[] loadedSounds(AssetManager assetManager) {
+        Sound[] sounds = new Sound[SoundEffect.VALUES.length];
+        for (SoundEffect effect : SoundEffect.VALUES) {
+            sounds[effect.ordinal()] = assetManager.get(effect.fileName, Sound.class);
+        }
+        return sounds;
+    }
+
+    public void setMasterVolume(float masterVolume) {
+        this.masterVolume = masterVolume;
+    }
+
+    public int getPlayed() {
+        return played;
+    }
+
+    /**
+     * @return how many sounds were cut short to play another
+     */
+    public int getStolen() {
+        return stolen;
+    }
+
+    /**
+     * @return how many requests didn't get a voice
+     */
+    public int getDropped() {
+        return dropped;
+    }
+
+    /**
+     * @return how many voices are playing
+     */
+    public int getActiveVoices() {
+        int active = 0;
+        for (int i = 0; i < VOICES; i++) {
+            if (voiceEffect[i] != FREE) active++;
+        }
+        return active;
+    }
+
+    public void play(SoundEffect effect) {
+        play(effect, 1f, 0f);
+    }
+
+    /**
+     * Requests the effect, it starts on the next {@link #update(float)}.
+     *
+     * @param pan from -1, full left, to 1, full right
+     */
+    public void play(SoundEffect effect, float volume, float pan) {
+        int i = effect.ordinal();
+        if (volume > requestVolume[i]) {
+            requestVolume[i] = volume;
+            requestPan[i] = pan;
+        }
+    }
+
+    /**
+     * Frees the voices that have finished and starts the sounds requested since the last update. Call once per frame.
+     */
+    public void update(float delta) {
+        time += delta;
+        for (int i = 0; i < VOICES; i++) {
+            if (voiceEffect[i] != FREE && voiceEnd[i] <= time) {
+                free(i);
+            }
+        }
+        for (SoundEffect effect : startOrder) {
+            float volume = requestVolume[effect.ordinal()];
+            if (volume <= 0f) continue;
+            requestVolume[effect.ordinal()] = 0f;
+            start(effect, volume, requestPan[effect.ordinal()]);
+        }
+    }
+
+    private void start(SoundEffect effect, float volume, float pan) {
+        int voice = findVoice(effect);
+        if (voice == FREE) {
+            dropped++;
+            return;
+        }
+        if (voiceEffect[voice] != FREE) {
+            sounds[voiceEffect[voice]].stop(voiceId[voice]);
+            free(voice);
+            stolen++;
+        }
+        long id = sounds[effect.ordinal()].play(volume * masterVolume, 1f, pan);
+        if (id == -1) {
+            //the backend ran out of sources
+            dropped++;
+            return;
+        }
+        voiceEffect[voice] = effect.ordinal();
+        voiceId[voice] = id;
+        voiceStart[voice] = time;
+        voiceEnd[voice] = time + effect.duration;
+        playing[effect.ordinal()]++;
+        played++;
+    }
+
+    // a free voice, or the one to steal for the effect, or FREE if it can't play
+    private int findVoice(SoundEffect effect) {
+        if (playing[effect.ordinal()] >= effect.maxVoices) {
+            return findOldestOf(effect.ordinal());
+        }
+        int lowestPriority = effect.priority;
+        for (int i = 0; i < VOICES; i++) {
+            if (voiceEffect[i] == FREE) return i;
+            lowestPriority = Math.min(lowestPriority, SoundEffect.VALUES[voiceEffect[i]].priority);
+        }
+        if (lowestPriority == effect.priority) return FREE;
+        return findOldestWith(lowestPriority);
+    }
+
+    private int findOldestWith(int priority) {
+        int oldest = FREE;
+        for (int i = 0; i < VOICES; i++) {
+            if (SoundEffect.VALUES[voiceEffect[i]].priority == priority
+                && (oldest == FREE || voiceStart[i] < voiceStart[oldest])) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    private int findOldestOf(int effect) {
+        int oldest = FREE;
+        for (int i = 0; i < VOICES; i++) {
+            if (voiceEffect[i] == effect && (oldest == FREE || voiceStart[i] < voiceStart[oldest])) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    private void free(int voice) {
+        playing[voiceEffect[voice]]--;
+        voiceEffect[voice] = FREE;
+    }
+
+    /**
+     * Stops every voice and forgets the pending requests.
+     */
+    public void stopAll() {
+        for (int i = 0; i < VOICES; i++) {
+            if (voiceEffect[i] != FREE) {
+                sounds[voiceEffect[i]].stop(voiceId[i]);
+                free(i);
+            }
+        }
+        for (int i = 0; i < requestVolume.length; i++) {
+            requestVolume[i] = 0f;
+        }
+    }
+}
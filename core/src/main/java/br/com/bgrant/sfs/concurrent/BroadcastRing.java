@@ -0,0 +1,100 @@
+package br.com.bgrant.sfs.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ring of longs written by one producer thread and read by any number of subscribers, each on its own thread and at
+ * its own pace, without locks or allocation. The producer never looks at the subscribers, so a slow subscriber can't
+ * slow it down: it overwrites the oldest values instead, and the subscriber skips what it missed and counts it as
+ * lost.
+ */
+public class BroadcastRing {
+
+    public interface Handler {
+        void onValue(long value);
+    }
+
+    /**
+     * Reads the ring from where it subscribed. Used by one thread.
+     */
+    public class Subscriber {
+        //sequence of the next value to read
+        private long next;
+        private long lost;
+
+        private Subscriber(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Passes every value published since the last drain to the handler, oldest first.
+         *
+         * @return the number of values passed
+         */
+        public int drain(Handler handler) {
+            long available = published.get();
+            if (available - next > slots.length()) {
+                lost += available - slots.length() - next;
+                next = available - slots.length();
+            }
+            int count = 0;
+            while (next < available) {
+                long value = slots.get((int) next & mask);
+                //the producer claims a sequence before writing its slot, so this tells if the slot was reused
+                long oldest = claimed.get() - slots.length();
+                if (next < oldest) {
+                    lost += oldest - next;
+                    next = oldest;
+                    continue;
+                }
+                handler.onValue(value);
+                next++;
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Values overwritten before this subscriber read them.
+         */
+        public long getLost() {
+            return lost;
+        }
+    }
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    //sequence of the next value, raised before its slot is written
+    private final AtomicLong claimed = new AtomicLong();
+    //number of values written, raised after their slots are written
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * @param capacity a power of two
+     */
+    public BroadcastRing(int capacity) {
+        if (capacity <= 0 || (capacity & capacity - 1) != 0) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        slots = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Producer side: adds a value, overwriting the oldest one if the ring is full.
+     */
+    public void publish(long value) {
+        long sequence = published.get();
+        claimed.set(sequence + 1);
+        slots.set((int) sequence & mask, value);
+        published.lazySet(sequence + 1);
+    }
+
+    /**
+     * A subscriber that reads the values published from now on. Can be called from any thread.
+     */
+    public Subscriber subscribe() {
+        return new Subscriber(published.get());
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.bgrant.sfs.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue of bytes from one producer thread to one consumer thread, without locks or allocation. Each side only
+ * writes its own counter, and publishes it with an ordered store after touching the slots, so the other side sees the
+ * slots before the counter. When the queue is full {@link #offer(byte)} fails instead of waiting.
+ */
+public class ByteRingQueue {
+
+    private final byte[] buffer;
+    private final int mask;
+    //written only by the producer
+    private final AtomicLong tail = new AtomicLong();
+    //written only by the consumer
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity a power of two
+     */
+    public ByteRingQueue(int capacity) {
+        if (capacity <= 0 || (capacity & capacity - 1) != 0) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        buffer = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Producer side.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(byte value) {
+        long t = tail.get();
+        if (t - head.get() == buffer.length) return false;
+        buffer[(int) t & mask] = value;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side.
+     *
+     * @return the oldest value as 0 to 255, or -1 if the queue is empty
+     */
+    public int poll() {
+        long h = head.get();
+        if (h == tail.get()) return -1;
+        int value = buffer[(int) h & mask] & 0xFF;
+        head.lazySet(h + 1);
+        return value;
+    }
+}
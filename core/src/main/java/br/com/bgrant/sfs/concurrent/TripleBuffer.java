@@ -0,0 +1,61 @@
+package br.com.bgrant.sfs.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands the latest value from one producer thread to one consumer thread without locks, and neither side ever waits.
+ * There are three instances: the producer writes into the back one and publishes it, the consumer takes the most
+ * recently published one to the front, and the third sits in between, so the two threads never touch the same
+ * instance. Values the consumer didn't take in time are overwritten by newer ones.
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 3;
+    //set on the middle index when it holds a value the consumer hasn't taken yet
+    private static final int FRESH = 4;
+
+    private final T[] buffers;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    //only used by the producer
+    private int back = 0;
+    //only used by the consumer
+    private int front = 2;
+
+    @SuppressWarnings("unchecked")
+    public TripleBuffer(Supplier<T> factory) {
+        buffers = (T[]) new Object[]{factory.get(), factory.get(), factory.get()};
+    }
+
+    /**
+     * Producer side: the instance to write the next value into.
+     */
+    public T getBack() {
+        return buffers[back];
+    }
+
+    /**
+     * Producer side: makes the value written into {@link #getBack()} the latest one.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Consumer side: moves the latest published value to the front, if there is one it hasn't taken yet.
+     *
+     * @return whether the front changed
+     */
+    public boolean update() {
+        if ((middle.get() & FRESH) == 0) return false;
+        front = middle.getAndSet(front) & INDEX_MASK;
+        return true;
+    }
+
+    /**
+     * Consumer side: the value taken by the last {@link #update()}.
+     */
+    public T getFront() {
+        return buffers[front];
+    }
+}
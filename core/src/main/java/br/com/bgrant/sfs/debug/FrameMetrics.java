@@ -0,0 +1,131 @@
+package br.com.bgrant.sfs.debug;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Metrics of the last frames, kept in a fixed-size ring buffer of primitive arrays.
+ * Recording a frame only writes a few array slots, so it can run every frame without allocating.
+ */
+public class FrameMetrics {
+
+    public static final String CSV_HEADER = "frame,frame_ms,update_ms,render_ms,render_calls,texture_bindings,gc_count,gc_time_ms,heap_used_bytes";
+
+    private final int capacity;
+    //total frames recorded, the newest frame is at (count - 1) % capacity
+    private long count;
+
+    private final float[] frameMillis;
+    private final float[] updateMillis;
+    private final float[] renderMillis;
+    private final int[] renderCalls;
+    //-1 when texture bindings were not being counted
+    private final int[] textureBindings;
+    private final long[] gcCount;
+    private final long[] gcTimeMillis;
+    private final long[] heapUsedBytes;
+
+    public FrameMetrics(int capacity) {
+        this.capacity = capacity;
+        frameMillis = new float[capacity];
+        updateMillis = new float[capacity];
+        renderMillis = new float[capacity];
+        renderCalls = new int[capacity];
+        textureBindings = new int[capacity];
+        gcCount = new long[capacity];
+        gcTimeMillis = new long[capacity];
+        heapUsedBytes = new long[capacity];
+    }
+
+    public void record(float frameMillis, float updateMillis, float renderMillis, int renderCalls,
+                       int textureBindings, long gcCount, long gcTimeMillis, long heapUsedBytes) {
+        int i = (int) (count % capacity);
+        this.frameMillis[i] = frameMillis;
+        this.updateMillis[i] = updateMillis;
+        this.renderMillis[i] = renderMillis;
+        this.renderCalls[i] = renderCalls;
+        this.textureBindings[i] = textureBindings;
+        this.gcCount[i] = gcCount;
+        this.gcTimeMillis[i] = gcTimeMillis;
+        this.heapUsedBytes[i] = heapUsedBytes;
+        count++;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of frames currently held, at most the capacity.
+     */
+    public int size() {
+        return (int) Math.min(count, capacity);
+    }
+
+    // index of the frame recorded 'age' frames ago, 0 being the newest
+    private int slot(int age) {
+        return (int) ((count - 1 - age) % capacity);
+    }
+
+    public float getFrameMillis(int age) {
+        return frameMillis[slot(age)];
+    }
+
+    public float getUpdateMillis(int age) {
+        return updateMillis[slot(age)];
+    }
+
+    public float getRenderMillis(int age) {
+        return renderMillis[slot(age)];
+    }
+
+    public int getRenderCalls(int age) {
+        return renderCalls[slot(age)];
+    }
+
+    public int getTextureBindings(int age) {
+        return textureBindings[slot(age)];
+    }
+
+    public long getGcCount(int age) {
+        return gcCount[slot(age)];
+    }
+
+    public long getGcTimeMillis(int age) {
+        return gcTimeMillis[slot(age)];
+    }
+
+    public long getHeapUsedBytes(int age) {
+        return heapUsedBytes[slot(age)];
+    }
+
+    /**
+     * Writes every frame held, oldest first, as CSV with a header line.
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long first = count - size();
+        for (int age = size() - 1; age >= 0; age--) {
+            int i = slot(age);
+            writer.write(Long.toString(first++));
+            writer.write(',');
+            writer.write(Float.toString(frameMillis[i]));
+            writer.write(',');
+            writer.write(Float.toString(updateMillis[i]));
+            writer.write(',');
+            writer.write(Float.toString(renderMillis[i]));
+            writer.write(',');
+            writer.write(Integer.toString(renderCalls[i]));
+            writer.write(',');
+            writer.write(Integer.toString(textureBindings[i]));
+            writer.write(',');
+            writer.write(Long.toString(gcCount[i]));
+            writer.write(',');
+            writer.write(Long.toString(gcTimeMillis[i]));
+            writer.write(',');
+            writer.write(Long.toString(heapUsedBytes[i]));
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package br.com.bgrant.sfs.debug;
+
+import com.badlogic.gdx.Gdx;
+
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the frames in the {@link Mode#HYBRID} mode and records the time between frames in every mode into a
+ * {@link FrameTimeHistogram}, so the modes can be compared by their slow frames and not only their average.
+ * {@link #endFrame()} is called at the end of every frame and {@link #logSummary()} on exit.
+ */
+public class FramePacer {
+
+    public enum Mode {
+        //the display paces the frames, the backend caps them at the refresh rate as a safeguard
+        VSYNC,
+        //the backend sleeps to the target frame rate
+        CAP,
+        //as fast as possible, for benchmarks
+        UNCAPPED,
+        //sleeps until shortly before the target frame time and spins the rest of the way, for a tighter frame time
+        HYBRID;
+
+        /**
+         * @return the mode with that name, ignoring case
+         */
+        public static Mode parse(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) return mode;
+            }
+            throw new IllegalArgumentException("Unknown pacing mode: " + name);
+        }
+    }
+
+    //sleeping can overshoot by about a millisecond, the last stretch before the deadline is spun instead
+    private static final long SPIN_NANOS = 2000000L;
+    //frames over this many times the median are counted as stutter
+    private static final int STUTTER_FACTOR = 2;
+
+    private final Mode mode;
+    private final int targetFps;
+    private final long targetNanos;
+    private final FrameTimeHistogram histogram = new FrameTimeHistogram();
+    private long lastFrameNanos;
+    //when the next frame is due in the hybrid mode
+    private long nextFrameNanos;
+
+    /**
+     * @param targetFps the frame rate the cap and hybrid modes aim for
+     */
+    public FramePacer(Mode mode, int targetFps) {
+        if (targetFps <= 0 && (mode == Mode.CAP || mode == Mode.HYBRID)) {
+            throw new IllegalArgumentException("The " + mode + " mode needs a target frame rate");
+        }
+        this.mode = mode;
+        this.targetFps = targetFps;
+        this.targetNanos = targetFps > 0 ? 1000000000L / targetFps : 0;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    public FrameTimeHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Waits for the frame's deadline in the hybrid mode, then records the time since the last frame ended.
+     */
+    public void endFrame() {
+        if (mode == Mode.HYBRID) {
+            waitForDeadline();
+        }
+        long now = System.nanoTime();
+        if (lastFrameNanos != 0) {
+            histogram.record(now - lastFrameNanos);
+        }
+        lastFrameNanos = now;
+    }
+
+    private void waitForDeadline() {
+        nextFrameNanos += targetNanos;
+        long remaining = nextFrameNanos - System.nanoTime();
+        if (remaining <= 0) {
+            //a late frame keeps the schedule, a frame late by more than a whole frame starts it over
+            if (-remaining > targetNanos) {
+                nextFrameNanos = System.nanoTime();
+            }
+            return;
+        }
+        while (remaining > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+            remaining = nextFrameNanos - System.nanoTime();
+        }
+        while (System.nanoTime() - nextFrameNanos < 0) {
+            //spin
+        }
+    }
+
+    /**
+     * Logs the frame time percentiles of the frames recorded so far.
+     */
+    public void logSummary() {
+        long frames = histogram.getCount();
+        if (frames == 0) return;
+        long median = histogram.getPercentileNanos(0.5);
+        Gdx.app.log("FramePacer", String.format(Locale.ROOT, "%s%s: %d frames, mean %.2f ms, "
+                + "p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms, %d over %dx the median",
+            mode, mode == Mode.CAP || mode == Mode.HYBRID ? " " + targetFps + " fps" : "", frames,
+            millis(histogram.getMeanNanos()), millis(median), millis(histogram.getPercentileNanos(0.99)),
+            millis(histogram.getPercentileNanos(0.999)), millis(histogram.getMaxNanos()),
+            histogram.getCountAbove(median * STUTTER_FACTOR), STUTTER_FACTOR));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1000000.0;
+    }
+}
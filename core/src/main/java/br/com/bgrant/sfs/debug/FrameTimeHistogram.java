@@ -0,0 +1,85 @@
+package br.com.bgrant.sfs.debug;
+
+/**
+ * Histogram of frame times in nanoseconds with logarithmic buckets: every power of two is split into
+ * {@link #SUB_BUCKETS} buckets, so a value is known within about 6% from a microsecond to minutes with a thousand
+ * counters. Recording only increments a counter, so it can run every frame without allocating, and unlike an average
+ * it keeps the rare long frames that are felt as stutter.
+ */
+public class FrameTimeHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public void record(long nanos) {
+        if (nanos < 0) return;
+        counts[bucket(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * The frame time that the given fraction of the frames didn't go over, rounded up to the end of its bucket.
+     *
+     * @param fraction from 0 to 1, 0.99 for the 99th percentile
+     */
+    public long getPercentileNanos(double fraction) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Number of frames that took longer than the given time, rounded to the buckets.
+     */
+    public long getCountAbove(long nanos) {
+        long above = 0;
+        for (int i = bucket(nanos) + 1; i < counts.length; i++) {
+            above += counts[i];
+        }
+        return above;
+    }
+
+    // the power of two picks the group, the next bits below the highest one pick the bucket in it
+    private static int bucket(long value) {
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        if (highestBit < SUB_BUCKET_BITS) return (int) value;
+        int shift = highestBit - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long upperBound(int bucket) {
+        int group = bucket / SUB_BUCKETS;
+        if (group == 0) return bucket;
+        int shift = group - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
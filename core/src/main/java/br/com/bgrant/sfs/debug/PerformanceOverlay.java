@@ -0,0 +1,151 @@
+package br.com.bgrant.sfs.debug;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records the metrics of every frame into a {@link FrameMetrics} ring buffer and, when visible, shows them on screen:
+ * FPS, update and render time, batch render calls, texture bindings, GC count and time and heap usage.
+ * Recording is always on and doesn't allocate; texture bindings are only counted while the overlay is visible,
+ * because counting them wraps every GL call.
+ */
+public class PerformanceOverlay {
+
+    private static final String TAG = "PerformanceOverlay";
+    public static final int FRAMES_KEPT = 4096;
+    //how often the text on screen is rebuilt, in seconds
+    private static final float TEXT_REFRESH_INTERVAL = 0.25f;
+    private static final float NANOS_PER_MILLI = 1000000f;
+    private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final FrameMetrics metrics = new FrameMetrics(FRAMES_KEPT);
+    private final GarbageCollectorMXBean[] garbageCollectors;
+    private final Runtime runtime = Runtime.getRuntime();
+    private final GLProfiler profiler;
+
+    private final BitmapFont font;
+    private final GlyphLayout layout = new GlyphLayout();
+    private final StringBuilder text = new StringBuilder();
+    private boolean visible;
+    private float refreshTimer;
+
+    //timing of the current frame
+    private long frameStartNanos;
+    private long updateEndNanos;
+
+    public PerformanceOverlay(BitmapFont font) {
+        this.font = font;
+        this.garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans().toArray(new GarbageCollectorMXBean[0]);
+        this.profiler = new GLProfiler(Gdx.graphics);
+    }
+
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void toggle() {
+        visible = !visible;
+        if (visible) {
+            profiler.enable();
+        } else {
+            profiler.disable();
+        }
+        refreshTimer = 0f;
+    }
+
+    public void beginFrame() {
+        frameStartNanos = System.nanoTime();
+    }
+
+    public void endUpdate() {
+        updateEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Records the frame that started with {@link #beginFrame()}.
+     *
+     * @param renderCalls the batch render calls of the frame
+     */
+    public void endFrame(float delta, int renderCalls) {
+        long frameEndNanos = System.nanoTime();
+        long gcCount = 0, gcTimeMillis = 0;
+        for (int i = 0; i < garbageCollectors.length; i++) {
+            // both are -1 if the collector doesn't report them
+            gcCount += Math.max(0, garbageCollectors[i].getCollectionCount());
+            gcTimeMillis += Math.max(0, garbageCollectors[i].getCollectionTime());
+        }
+        int textureBindings = profiler.isEnabled() ? profiler.getTextureBindings() : -1;
+        profiler.reset();
+        metrics.record(delta * 1000f,
+            (updateEndNanos - frameStartNanos) / NANOS_PER_MILLI,
+            (frameEndNanos - updateEndNanos) / NANOS_PER_MILLI,
+            renderCalls, textureBindings, gcCount, gcTimeMillis,
+            runtime.totalMemory() - runtime.freeMemory());
+
+        if (visible) {
+            refreshTimer -= delta;
+            if (refreshTimer <= 0) {
+                refreshTimer = TEXT_REFRESH_INTERVAL;
+                updateText();
+            }
+        }
+    }
+
+    private void updateText() {
+        text.setLength(0);
+        text.append("FPS: ").append(Gdx.graphics.getFramesPerSecond())
+            .append("  FRAME: ");
+        appendMillis(metrics.getFrameMillis(0));
+        text.append("\nUPDATE: ");
+        appendMillis(metrics.getUpdateMillis(0));
+        text.append("  RENDER: ");
+        appendMillis(metrics.getRenderMillis(0));
+        text.append("\nRENDER CALLS: ").append(metrics.getRenderCalls(0))
+            .append("  TEXTURE BINDINGS: ").append(metrics.getTextureBindings(0))
+            .append("\nGC: ").append(metrics.getGcCount(0))
+            .append(" (").append(metrics.getGcTimeMillis(0)).append(" ms)")
+            .append("  HEAP: ").append(metrics.getHeapUsedBytes(0) / BYTES_PER_MEGABYTE)
+            .append(" / ").append(runtime.maxMemory() / BYTES_PER_MEGABYTE).append(" MB");
+        layout.setText(font, text);
+    }
+
+    // appends milliseconds with one decimal, without going through String.format
+    private void appendMillis(float millis) {
+        int tenths = Math.round(millis * 10f);
+        text.append(tenths / 10).append('.').append(tenths % 10).append(" ms");
+    }
+
+    /**
+     * Draws the overlay, if visible, with its bottom left corner at the given position. The batch must be drawing.
+     */
+    public void render(Batch batch, float x, float y) {
+        if (!visible) return;
+        font.draw(batch, layout, x, y + layout.height);
+    }
+
+    /**
+     * Writes every frame kept in the ring buffer to a CSV file in the local storage.
+     */
+    public void dumpCsv() {
+        FileHandle file = Gdx.files.local("frame-metrics-" + System.currentTimeMillis() + ".csv");
+        try (Writer writer = file.writer(false, "UTF-8")) {
+            metrics.writeCsv(writer);
+            Gdx.app.log(TAG, "Wrote " + metrics.size() + " frames to " + file.path());
+        } catch (IOException e) {
+            Gdx.app.error(TAG, "Could not write " + file.path(), e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.bgrant.sfs.debug;
+
+import com.badlogic.gdx.Gdx;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records named wall-clock spans and marks during startup, measured from the moment the JVM started,
+ * and prints them once as a startup report. Spans can be opened and closed from different classes and threads,
+ * and closing a span that was never opened is ignored, so backends that don't open one don't need to care.
+ */
+public class StartupTracer {
+
+    private static final String TAG = "StartupTracer";
+    private static final int MAX_SPANS = 32;
+    //set to exit once the report has been printed, used by the class data sharing training run
+    public static final boolean EXIT_AFTER_REPORT = Boolean.getBoolean("sfs.startup.exitAfterReport");
+
+    //System.nanoTime() of the JVM start, so class loading before main is part of the report
+    private static final long ORIGIN_NANOS = System.nanoTime()
+        - (System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()) * 1000000L;
+
+    private static final String[] names = new String[MAX_SPANS];
+    private static final long[] beginNanos = new long[MAX_SPANS];
+    //-1 while the span is open, 0 for marks
+    private static final long[] durationNanos = new long[MAX_SPANS];
+    private static int size;
+    private static boolean reported;
+
+    public static synchronized void begin(String name) {
+        if (size == MAX_SPANS) return;
+        names[size] = name;
+        beginNanos[size] = System.nanoTime();
+        durationNanos[size] = -1;
+        size++;
+    }
+
+    public static synchronized void end(String name) {
+        long now = System.nanoTime();
+        for (int i = size - 1; i >= 0; i--) {
+            if (durationNanos[i] == -1 && names[i].equals(name)) {
+                durationNanos[i] = now - beginNanos[i];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a point in time, like the first frame.
+     */
+    public static synchronized void mark(String name) {
+        if (size == MAX_SPANS) return;
+        names[size] = name;
+        beginNanos[size] = System.nanoTime();
+        durationNanos[size] = 0;
+        size++;
+    }
+
+    /**
+     * Logs every span and mark recorded so far, the first time it is called.
+     */
+    public static synchronized void report() {
+        if (reported) return;
+        reported = true;
+        Gdx.app.log(TAG, "startup report in ms, start since the JVM started and duration:");
+        for (int i = 0; i < size; i++) {
+            String duration = durationNanos[i] == 0 ? "" : durationNanos[i] == -1 ? "open" : toMillis(durationNanos[i]);
+            Gdx.app.log(TAG, String.format("  %9s %9s  %s", toMillis(beginNanos[i] - ORIGIN_NANOS), duration, names[i]));
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format("%.1f", nanos / 1000000.0);
+    }
+}
@@ -0,0 +1,160 @@
+package br.com.bgrant.sfs.effects;
+
+import br.com.bgrant.sfs.resources.Assets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Blood splatters where fighters get hit and blood pools on the floor under them, drawn from the blood atlas.
+ * Both live in fixed-size rings of primitive arrays, so spawning never allocates and once a ring is full the oldest
+ * one is replaced. Pools are drawn before the fighters and splatters after them, each as one run of the same texture,
+ * so together they add at most two texture switches to the fighters' batch.
+ */
+public class BloodEffects {
+
+    public static final int MAX_SPLATTERS = 16;
+    public static final int MAX_POOLS = 24;
+
+    private static final float SPLATTER_FRAME_DURATION = 0.03f;
+    private static final float POOL_GROW_TIME = 0.4f;
+    //pools dry out after this long, unless they are replaced earlier
+    private static final float POOL_LIFETIME = 20f;
+    private static final float POOL_FADE_TIME = 2f;
+    private static final float MIN_POOL_SCALE = 0.5f, MAX_POOL_SCALE = 0.8f;
+
+    private final Animation<TextureAtlas.AtlasRegion> splatterAnimation;
+    private final float splatterDuration;
+    private final TextureAtlas.AtlasRegion[] poolRegions;
+
+    //splatters, a negative time means the slot is free
+    private final float[] splatterX = new float[MAX_SPLATTERS];
+    private final float[] splatterY = new float[MAX_SPLATTERS];
+    private final float[] splatterFlipX = new float[MAX_SPLATTERS];
+    private final float[] splatterTime = new float[MAX_SPLATTERS];
+    private int nextSplatter;
+
+    //pools, a negative time means the slot is free
+    private final float[] poolX = new float[MAX_POOLS];
+    private final float[] poolY = new float[MAX_POOLS];
+    private final float[] poolScale = new float[MAX_POOLS];
+    private final byte[] poolRegion = new byte[MAX_POOLS];
+    private final float[] poolTime = new float[MAX_POOLS];
+    private int nextPool;
+
+    private final Color color = new Color();
+
+    public BloodEffects(TextureAtlas bloodAtlas) {
+        Array<TextureAtlas.AtlasRegion> splatterFrames = bloodAtlas.findRegions("BloodSplatter");
+        if (splatterFrames.size == 0) {
+            throw new GdxRuntimeException("No BloodSplatter frames in " + Assets.BLOOD_ATLAS);
+        }
+        splatterAnimation = new Animation<TextureAtlas.AtlasRegion>(SPLATTER_FRAME_DURATION, splatterFrames);
+        splatterDuration = splatterAnimation.getAnimationDuration();
+        Array<TextureAtlas.AtlasRegion> pools = new Array<>(TextureAtlas.AtlasRegion.class);
+        for (TextureAtlas.AtlasRegion region = bloodAtlas.findRegion("BloodPool0"); region != null;
+             region = bloodAtlas.findRegion("BloodPool" + pools.size)) {
+            pools.add(region);
+        }
+        if (pools.size == 0) {
+            throw new GdxRuntimeException("No BloodPool regions in " + Assets.BLOOD_ATLAS);
+        }
+        poolRegions = pools.toArray();
+        clear();
+    }
+
+    /**
+     * Spawns a splatter centered on the given point, spraying to the right when flipX is 1 and to the left when -1.
+     */
+    public void spawnSplatter(float x, float y, float flipX) {
+        int i = nextSplatter;
+        nextSplatter = (nextSplatter + 1) % MAX_SPLATTERS;
+        splatterX[i] = x;
+        splatterY[i] = y;
+        splatterFlipX[i] = flipX;
+        splatterTime[i] = 0f;
+    }
+
+    /**
+     * Spawns a pool on the floor, centered horizontally on x with its bottom at y.
+     */
+    public void spawnPool(float x, float y) {
+        int i = nextPool;
+        nextPool = (nextPool + 1) % MAX_POOLS;
+        poolX[i] = x;
+        poolY[i] = y;
+        poolScale[i] = MathUtils.random(MIN_POOL_SCALE, MAX_POOL_SCALE);
+        poolRegion[i] = (byte) MathUtils.random(poolRegions.length - 1);
+        poolTime[i] = 0f;
+    }
+
+    public void update(float delta) {
+        for (int i = 0; i < MAX_SPLATTERS; i++) {
+            if (splatterTime[i] < 0f) continue;
+            splatterTime[i] += delta;
+            if (splatterTime[i] >= splatterDuration) {
+                splatterTime[i] = -1f;
+            }
+        }
+        for (int i = 0; i < MAX_POOLS; i++) {
+            if (poolTime[i] < 0f) continue;
+            poolTime[i] += delta;
+            if (poolTime[i] >= POOL_LIFETIME) {
+                poolTime[i] = -1f;
+            }
+        }
+    }
+
+    /**
+     * Draws the pools, call before drawing the fighters so they stand on them.
+     */
+    public void renderPools(Batch batch) {
+        color.set(batch.getColor());
+        for (int i = 0; i < MAX_POOLS; i++) {
+            float time = poolTime[i];
+            if (time < 0f) continue;
+            //pools spread out when they appear and fade when they dry
+            float scale = poolScale[i] * Math.min(time / POOL_GROW_TIME, 1f);
+            float alpha = Math.min((POOL_LIFETIME - time) / POOL_FADE_TIME, 1f);
+            TextureAtlas.AtlasRegion region = poolRegions[poolRegion[i]];
+            float width = region.packedWidth * GlobalVariables.WORLD_SCALE * scale;
+            float height = region.packedHeight * GlobalVariables.WORLD_SCALE * scale;
+            batch.setColor(color.r, color.g, color.b, color.a * alpha);
+            batch.draw(region, poolX[i] - width * 0.5f, poolY[i], width, height);
+        }
+        batch.setColor(color);
+    }
+
+    /**
+     * Draws the splatters, call after drawing the fighters so they spray over them.
+     */
+    public void renderSplatters(Batch batch) {
+        for (int i = 0; i < MAX_SPLATTERS; i++) {
+            if (splatterTime[i] < 0f) continue;
+            TextureAtlas.AtlasRegion frame = splatterAnimation.getKeyFrame(splatterTime[i]);
+            float width = frame.packedWidth * GlobalVariables.WORLD_SCALE;
+            float height = frame.packedHeight * GlobalVariables.WORLD_SCALE;
+            batch.draw(frame, splatterX[i] - width * 0.5f, splatterY[i] - height * 0.5f,
+                width * 0.5f, height * 0.5f, width, height, splatterFlipX[i], 1, 0);
+        }
+    }
+
+    /**
+     * Removes every splatter and pool.
+     */
+    public void clear() {
+        for (int i = 0; i < MAX_SPLATTERS; i++) {
+            splatterTime[i] = -1f;
+        }
+        for (int i = 0; i < MAX_POOLS; i++) {
+            poolTime[i] = -1f;
+        }
+        nextSplatter = 0;
+        nextPool = 0;
+    }
+}
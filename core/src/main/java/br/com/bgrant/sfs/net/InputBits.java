@@ -0,0 +1,80 @@
+package br.com.bgrant.sfs.net;
+
+import br.com.bgrant.sfs.objects.Fighter;
+import com.badlogic.gdx.Input;
+
+/**
+ * The input of one fighter for one tick, packed into a byte: the keys held during the tick. This is all that
+ * versus peers exchange. Movement follows the held direction keys, block follows the block key and attacks
+ * start on the tick their key goes down.
+ */
+public class InputBits {
+
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int BLOCK = 1 << 4;
+    public static final int PUNCH = 1 << 5;
+    public static final int KICK = 1 << 6;
+
+    /**
+     * Returns the bit of the key, or 0 if it isn't a game key. Uses the same keys as single player.
+     */
+    public static int fromKeycode(int keycode) {
+        switch (keycode) {
+            case Input.Keys.LEFT:
+            case Input.Keys.A:
+                return LEFT;
+            case Input.Keys.RIGHT:
+            case Input.Keys.D:
+                return RIGHT;
+            case Input.Keys.UP:
+            case Input.Keys.W:
+                return UP;
+            case Input.Keys.DOWN:
+            case Input.Keys.S:
+                return DOWN;
+            case Input.Keys.B:
+                return BLOCK;
+            case Input.Keys.F:
+                return PUNCH;
+            case Input.Keys.V:
+                return KICK;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Drives the fighter from its input of the previous and of the current tick.
+     *
+     * @param canMove whether movement keys move the fighter, they don't before the fight starts
+     */
+    public static void apply(Fighter fighter, int previous, int current, boolean canMove) {
+        float x = 0, y = 0;
+        if (canMove) {
+            x = axis(current, LEFT, RIGHT);
+            y = axis(current, DOWN, UP);
+        }
+        fighter.getStore().setMovement(fighter.getIndex(), x, y);
+
+        int pressed = current & ~previous;
+        if ((pressed & BLOCK) != 0) {
+            fighter.block();
+        } else if ((previous & ~current & BLOCK) != 0) {
+            fighter.stopBlocking();
+        }
+        if ((pressed & PUNCH) != 0) {
+            fighter.punch();
+        } else if ((pressed & KICK) != 0) {
+            fighter.kick();
+        }
+    }
+
+    private static float axis(int bits, int negative, int positive) {
+        if ((bits & negative) != 0 && (bits & positive) == 0) return -1;
+        if ((bits & positive) != 0 && (bits & negative) == 0) return 1;
+        return 0;
+    }
+}
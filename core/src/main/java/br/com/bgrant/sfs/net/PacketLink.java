@@ -0,0 +1,23 @@
+package br.com.bgrant.sfs.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unreliable, unordered datagram link to one peer.
+ */
+public interface PacketLink {
+
+    /**
+     * Sends the bytes between the position and the limit of the buffer. Packets may be lost.
+     */
+    void send(ByteBuffer packet);
+
+    /**
+     * Reads the next received packet into the buffer, flipped for reading, without blocking.
+     *
+     * @return false if no packet was waiting
+     */
+    boolean receive(ByteBuffer packet);
+
+    void close();
+}
@@ -0,0 +1,276 @@
+package br.com.bgrant.sfs.net;
+
+import br.com.bgrant.sfs.concurrent.BroadcastRing;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.objects.MatchSnapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Runs a {@link Match} against a peer that runs the same match, exchanging only inputs. The remote input of a tick
+ * that hasn't arrived yet is predicted to be the last one received, so the local fighter never waits for the network.
+ * A snapshot of the match is saved before every tick; when a remote input turns out to differ from the prediction,
+ * the match is restored to that tick and the ticks since are simulated again with the right input.
+ * Local input is delayed by a couple of ticks to hide most of the latency, and every packet repeats all the local
+ * input the peer hasn't acknowledged yet, so lost packets don't need to be resent.
+ * The {@link br.com.bgrant.sfs.objects.GameEvent}s of a tick are kept until its remote input is confirmed and only
+ * published then, so the subscribers never see the events of a mispredicted tick.
+ */
+public class RollbackSession implements BroadcastRing.Handler {
+
+    //ticks the local input is delayed by
+    public static final int DEFAULT_INPUT_DELAY = 2;
+    //how far the simulation may run ahead of the last confirmed remote input before waiting for it
+    public static final int MAX_PREDICTION_TICKS = 8;
+    //history kept, must be a power of two larger than the prediction window and the unacknowledged input
+    private static final int HISTORY = 64;
+    private static final int HISTORY_MASK = HISTORY - 1;
+    private static final int MAX_INPUTS_PER_PACKET = 32;
+    // first tick, input count, the inputs and the last remote tick confirmed
+    private static final int PACKET_SIZE = 4 + 1 + MAX_INPUTS_PER_PACKET + 4;
+    //more than a tick can publish, a tick marker, hits, the end of a round and the start of the next
+    private static final int MAX_EVENTS_PER_TICK = 8;
+
+    private final Match match;
+    private final PacketLink link;
+    private final int localSide;
+    private final int remoteSide;
+    private final int inputDelay;
+
+    //input of each side by tick, remote input is predicted past the last confirmed tick
+    private final byte[][] inputs = new byte[2][HISTORY];
+    //match state before each tick
+    private final MatchSnapshot[] snapshots = new MatchSnapshot[HISTORY];
+    private final ByteBuffer packet = ByteBuffer.allocate(PACKET_SIZE);
+
+    //the match publishes into this ring, its events are moved to the tick they happened on after every tick
+    private final BroadcastRing simulatedEvents = new BroadcastRing(MAX_EVENTS_PER_TICK * 2);
+    private final BroadcastRing.Subscriber simulatedSubscriber = simulatedEvents.subscribe();
+    //events of each tick by tick, published once the tick is confirmed
+    private final long[][] tickEvents = new long[HISTORY][MAX_EVENTS_PER_TICK];
+    private final int[] tickEventCounts = new int[HISTORY];
+    //the tick the drained events are stored into
+    private int drainTick;
+    private final BroadcastRing events;
+
+    //next tick to simulate
+    private int tick;
+    private int lastLocalInputTick;
+    private int lastConfirmedRemoteTick = -1;
+    //last local tick the peer has received
+    private int lastAcknowledgedLocalTick = -1;
+    //first tick simulated with a wrong prediction, if any
+    private int rollbackTick = Integer.MAX_VALUE;
+    //last tick whose events were published
+    private int lastPublishedTick = -1;
+    private boolean connected;
+
+    //keys held now and keys pressed since the last tick, so a tap between two ticks isn't lost
+    private int heldInput, pressedInput;
+
+    //statistics
+    private int rollbacks;
+    private long rolledBackTicks;
+    private long lastRollbackNanos, maxRollbackNanos;
+
+    /**
+     * @param localSide 0 if this instance controls the player, 1 for the opponent
+     * @param events where the events of the confirmed ticks are published, or null
+     */
+    public RollbackSession(Match match, PacketLink link, int localSide, int inputDelay, BroadcastRing events) {
+        this.match = match;
+        this.events = events;
+        match.setEvents(simulatedEvents);
+        this.link = link;
+        this.localSide = localSide;
+        this.remoteSide = 1 - localSide;
+        this.inputDelay = inputDelay;
+        //the ticks before the delay have no input
+        this.lastLocalInputTick = inputDelay - 1;
+        int fighters = match.getPlayer().getStore().getCapacity();
+        for (int i = 0; i < HISTORY; i++) {
+            snapshots[i] = new MatchSnapshot(fighters);
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getRollbacks() {
+        return rollbacks;
+    }
+
+    public long getRolledBackTicks() {
+        return rolledBackTicks;
+    }
+
+    public long getLastRollbackNanos() {
+        return lastRollbackNanos;
+    }
+
+    public long getMaxRollbackNanos() {
+        return maxRollbackNanos;
+    }
+
+    /**
+     * Presses local input bits, see {@link InputBits}.
+     */
+    public void press(int bits) {
+        heldInput |= bits;
+        pressedInput |= bits;
+    }
+
+    public void release(int bits) {
+        heldInput &= ~bits;
+    }
+
+    /**
+     * Receives remote input, rolls back if a prediction was wrong and simulates the next tick.
+     *
+     * @return false if the tick couldn't be simulated yet, because the peer hasn't connected or is too far behind
+     */
+    public boolean advance(float deltaTime) {
+        receive();
+        if (!connected || tick - lastConfirmedRemoteTick > MAX_PREDICTION_TICKS) {
+            send();
+            return false;
+        }
+
+        //the local input for this tick is used inputDelay ticks later
+        lastLocalInputTick = tick + inputDelay;
+        inputs[localSide][lastLocalInputTick & HISTORY_MASK] = (byte) (heldInput | pressedInput);
+        pressedInput = 0;
+
+        if (rollbackTick < tick) {
+            rollback(deltaTime);
+        }
+        if (tick > lastConfirmedRemoteTick) {
+            inputs[remoteSide][tick & HISTORY_MASK] = predictRemoteInput();
+        }
+        simulate(tick, deltaTime);
+        tick++;
+        publishConfirmedEvents();
+        send();
+        return true;
+    }
+
+    private byte predictRemoteInput() {
+        return lastConfirmedRemoteTick < 0 ? 0 : inputs[remoteSide][lastConfirmedRemoteTick & HISTORY_MASK];
+    }
+
+    private void rollback(float deltaTime) {
+        long start = System.nanoTime();
+        match.restore(snapshots[rollbackTick & HISTORY_MASK]);
+        //the events of these ticks weren't published yet, simulating them again replaces them, and the match marks
+        //the tick of their first event again
+        match.setEvents(simulatedEvents);
+        for (int t = rollbackTick; t < tick; t++) {
+            simulate(t, deltaTime);
+        }
+        rollbacks++;
+        rolledBackTicks += tick - rollbackTick;
+        rollbackTick = Integer.MAX_VALUE;
+        lastRollbackNanos = System.nanoTime() - start;
+        maxRollbackNanos = Math.max(maxRollbackNanos, lastRollbackNanos);
+    }
+
+    private void simulate(int t, float deltaTime) {
+        match.save(snapshots[t & HISTORY_MASK]);
+        boolean canMove = match.getRoundState() == Match.RoundState.IN_PROGRESS;
+        applyInput(match.getPlayer(), 0, t, canMove);
+        applyInput(match.getOpponent(), 1, t, canMove);
+        //events published before the first tick, like the start of the first round, go with it
+        drainTick = t & HISTORY_MASK;
+        tickEventCounts[drainTick] = 0;
+        simulatedSubscriber.drain(this);
+        match.update(deltaTime);
+        simulatedSubscriber.drain(this);
+    }
+
+    @Override
+    public void onValue(long event) {
+        if (tickEventCounts[drainTick] == MAX_EVENTS_PER_TICK) {
+            throw new IllegalStateException("More than " + MAX_EVENTS_PER_TICK + " events in a tick");
+        }
+        tickEvents[drainTick][tickEventCounts[drainTick]++] = event;
+    }
+
+    //publishes the events of the ticks simulated with the confirmed remote input
+    private void publishConfirmedEvents() {
+        int last = Math.min(lastConfirmedRemoteTick, tick - 1);
+        for (int t = lastPublishedTick + 1; t <= last; t++) {
+            int i = t & HISTORY_MASK;
+            if (events != null) {
+                for (int e = 0; e < tickEventCounts[i]; e++) {
+                    events.publish(tickEvents[i][e]);
+                }
+            }
+            tickEventCounts[i] = 0;
+        }
+        lastPublishedTick = Math.max(lastPublishedTick, last);
+    }
+
+    private void applyInput(Fighter fighter, int side, int t, boolean canMove) {
+        int previous = t == 0 ? 0 : inputs[side][(t - 1) & HISTORY_MASK];
+        InputBits.apply(fighter, previous, inputs[side][t & HISTORY_MASK], canMove);
+    }
+
+    private void send() {
+        int first = lastAcknowledgedLocalTick + 1;
+        int count = Math.min(lastLocalInputTick - first + 1, MAX_INPUTS_PER_PACKET);
+        packet.clear();
+        packet.putInt(first);
+        packet.put((byte) count);
+        for (int i = 0; i < count; i++) {
+            packet.put(inputs[localSide][(first + i) & HISTORY_MASK]);
+        }
+        packet.putInt(lastConfirmedRemoteTick);
+        packet.flip();
+        link.send(packet);
+    }
+
+    private void receive() {
+        while (link.receive(packet)) {
+            connected = true;
+            int first = packet.getInt();
+            int count = packet.get();
+            for (int i = 0; i < count; i++) {
+                byte input = packet.get();
+                int t = first + i;
+                //inputs are only confirmed in order, a gap waits for a later packet
+                if (t != lastConfirmedRemoteTick + 1) continue;
+                confirmRemoteInput(t, input);
+            }
+            lastAcknowledgedLocalTick = Math.max(lastAcknowledgedLocalTick, packet.getInt());
+        }
+
+        //ticks still predicted were predicted from an older input, predict them again
+        byte predicted = predictRemoteInput();
+        for (int t = lastConfirmedRemoteTick + 1; t < tick; t++) {
+            if (inputs[remoteSide][t & HISTORY_MASK] != predicted) {
+                inputs[remoteSide][t & HISTORY_MASK] = predicted;
+                rollbackTick = Math.min(rollbackTick, t);
+            }
+        }
+    }
+
+    private void confirmRemoteInput(int t, byte input) {
+        int i = t & HISTORY_MASK;
+        if (t < tick && inputs[remoteSide][i] != input) {
+            //this tick was simulated with a wrong prediction
+            rollbackTick = Math.min(rollbackTick, t);
+        }
+        inputs[remoteSide][i] = input;
+        lastConfirmedRemoteTick = t;
+    }
+
+    public void close() {
+        link.close();
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.bgrant.sfs.net;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Wraps a link and makes it behave like a network: every sent packet is held back by the latency plus or minus
+ * a random jitter, so packets can arrive out of order, and a fraction of them is dropped. Packets are copied into
+ * preallocated slots, so it doesn't allocate while running.
+ */
+public class SimulatedConditionsLink implements PacketLink {
+
+    private static final int MAX_PACKETS_IN_FLIGHT = 256;
+    private static final int MAX_PACKET_SIZE = 512;
+
+    private final PacketLink link;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final float lossRate;
+    private final Random random;
+
+    //packets waiting to be sent, in no particular order
+    private final byte[][] packets = new byte[MAX_PACKETS_IN_FLIGHT][MAX_PACKET_SIZE];
+    private final int[] lengths = new int[MAX_PACKETS_IN_FLIGHT];
+    private final long[] sendNanos = new long[MAX_PACKETS_IN_FLIGHT];
+    private int inFlight;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(MAX_PACKET_SIZE);
+
+    /**
+     * @param lossRate fraction of the packets that are dropped, from 0 to 1
+     */
+    public SimulatedConditionsLink(PacketLink link, int latencyMillis, int jitterMillis, float lossRate, long seed) {
+        this.link = link;
+        this.latencyNanos = latencyMillis * 1000000L;
+        this.jitterNanos = jitterMillis * 1000000L;
+        this.lossRate = lossRate;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void send(ByteBuffer packet) {
+        sendDuePackets();
+        if (random.nextFloat() < lossRate || inFlight == MAX_PACKETS_IN_FLIGHT) {
+            packet.position(packet.limit());
+            return;
+        }
+        long delay = latencyNanos;
+        if (jitterNanos > 0) {
+            delay += (long) ((random.nextFloat() * 2f - 1f) * jitterNanos);
+        }
+        int length = packet.remaining();
+        packet.get(packets[inFlight], 0, length);
+        lengths[inFlight] = length;
+        sendNanos[inFlight] = System.nanoTime() + Math.max(0, delay);
+        inFlight++;
+    }
+
+    @Override
+    public boolean receive(ByteBuffer packet) {
+        sendDuePackets();
+        return link.receive(packet);
+    }
+
+    private void sendDuePackets() {
+        long now = System.nanoTime();
+        for (int i = 0; i < inFlight; ) {
+            if (sendNanos[i] > now) {
+                i++;
+                continue;
+            }
+            sendBuffer.clear();
+            sendBuffer.put(packets[i], 0, lengths[i]);
+            sendBuffer.flip();
+            link.send(sendBuffer);
+            //move the last packet into the free slot
+            inFlight--;
+            byte[] sent = packets[i];
+            packets[i] = packets[inFlight];
+            packets[inFlight] = sent;
+            lengths[i] = lengths[inFlight];
+            sendNanos[i] = sendNanos[inFlight];
+        }
+    }
+
+    @Override
+    public void close() {
+        link.close();
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.bgrant.sfs.net;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Non-blocking UDP link between two game instances on this machine.
+ */
+public class UdpLink implements PacketLink {
+
+    private final DatagramChannel channel;
+
+    public UdpLink(int localPort, int remotePort) {
+        try {
+            InetAddress loopback = InetAddress.getLoopbackAddress();
+            channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(loopback, localPort));
+            channel.connect(new InetSocketAddress(loopback, remotePort));
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not open UDP port " + localPort, e);
+        }
+    }
+
+    @Override
+    public void send(ByteBuffer packet) {
+        try {
+            channel.write(packet);
+        } catch (PortUnreachableException e) {
+            // the peer hasn't started yet, the packet is lost like any other
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not send packet", e);
+        }
+    }
+
+    @Override
+    public boolean receive(ByteBuffer packet) {
+        packet.clear();
+        try {
+            if (channel.read(packet) <= 0) return false;
+        } catch (PortUnreachableException e) {
+            return false;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not receive packet", e);
+        }
+        packet.flip();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to do with it
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.bgrant.sfs.net;
+
+/**
+ * Settings of a versus match against another instance on this machine, read from the launch arguments:
+ * {@code --versus <localPort> <remotePort> <player|opponent> [latencyMillis jitterMillis lossPercent]}.
+ * The optional values simulate network conditions on the packets this instance sends.
+ */
+public class VersusConfig {
+
+    public static final String ARGUMENT = "--versus";
+
+    public final int localPort;
+    public final int remotePort;
+    //the fighter controlled by this instance, 0 for the player and 1 for the opponent
+    public final int localSide;
+    public final int latencyMillis;
+    public final int jitterMillis;
+    public final float lossRate;
+
+    public VersusConfig(int localPort, int remotePort, int localSide, int latencyMillis, int jitterMillis, float lossRate) {
+        this.localPort = localPort;
+        this.remotePort = remotePort;
+        this.localSide = localSide;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.lossRate = lossRate;
+    }
+
+    /**
+     * Returns the versus settings in the arguments, or null for a single player game.
+     */
+    public static VersusConfig parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (!ARGUMENT.equals(args[i])) continue;
+            if (args.length < i + 4) {
+                throw new IllegalArgumentException(
+                    "usage: " + ARGUMENT + " <localPort> <remotePort> <player|opponent> [latencyMillis jitterMillis lossPercent]");
+            }
+            int localPort = Integer.parseInt(args[i + 1]);
+            int remotePort = Integer.parseInt(args[i + 2]);
+            int localSide = "opponent".equals(args[i + 3]) ? 1 : 0;
+            int latency = args.length > i + 4 ? Integer.parseInt(args[i + 4]) : 0;
+            int jitter = args.length > i + 5 ? Integer.parseInt(args[i + 5]) : 0;
+            float loss = args.length > i + 6 ? Float.parseFloat(args[i + 6]) / 100f : 0f;
+            return new VersusConfig(localPort, remotePort, localSide, latency, jitter, loss);
+        }
+        return null;
+    }
+
+    public boolean hasSimulatedConditions() {
+        return latencyMillis > 0 || jitterMillis > 0 || lossRate > 0;
+    }
+
+    /**
+     * Opens the link to the other instance, with the simulated network conditions if any.
+     */
+    public PacketLink openLink() {
+        PacketLink link = new UdpLink(localPort, remotePort);
+        if (hasSimulatedConditions()) {
+            link = new SimulatedConditionsLink(link, latencyMillis, jitterMillis, lossRate, localPort);
+        }
+        return link;
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.bgrant.sfs.objects;
+
+import br.com.bgrant.sfs.resources.Assets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.Locale;
+
+/**
+ * Animations of every fighter state, built once from the fighter atlas and shared by all the fighters drawn from it,
+ * since fighters only differ by their tint. Animations are indexed by {@link Fighter.State} ordinal and their play
+ * mode is fixed when they are built, so drawing never changes them.
+ */
+public class AnimationSet {
+
+    private final Animation<TextureAtlas.AtlasRegion>[] animations;
+    //size of the untrimmed frames, in world units
+    private final float frameWidth, frameHeight;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public AnimationSet(TextureAtlas atlas, FrameData frameData) {
+        Fighter.State[] states = Fighter.State.values();
+        animations = new Animation[states.length];
+        for (Fighter.State state : states) {
+            // the frames of each state are packed as "<state>" with index 0 to 5
+            Array<TextureAtlas.AtlasRegion> frames = atlas.findRegions(state.name().toLowerCase(Locale.ROOT));
+            if (frames.size != FighterStore.FRAMES_PER_ANIMATION) {
+                throw new GdxRuntimeException("Expected " + FighterStore.FRAMES_PER_ANIMATION + " frames for "
+                    + state + " in " + Assets.FIGHTER_ATLAS + " but found " + frames.size);
+            }
+            animations[state.ordinal()] = new Animation<TextureAtlas.AtlasRegion>(frameData.getFrameDuration(state),
+                frames, isLooping(state) ? Animation.PlayMode.LOOP : Animation.PlayMode.NORMAL);
+        }
+        TextureAtlas.AtlasRegion frame = animations[0].getKeyFrame(0f);
+        frameWidth = frame.originalWidth * GlobalVariables.WORLD_SCALE;
+        frameHeight = frame.originalHeight * GlobalVariables.WORLD_SCALE;
+    }
+
+    // attacks, getting hurt and losing stop on their last frame, the rest start over
+    private static boolean isLooping(Fighter.State state) {
+        switch (state) {
+            case HURT:
+            case KICK:
+            case LOSE:
+            case PUNCH:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    public float getFrameWidth() {
+        return frameWidth;
+    }
+
+    public float getFrameHeight() {
+        return frameHeight;
+    }
+
+    public TextureAtlas.AtlasRegion getKeyFrame(int stateOrdinal, float stateTime) {
+        return animations[stateOrdinal].getKeyFrame(stateTime);
+    }
+}
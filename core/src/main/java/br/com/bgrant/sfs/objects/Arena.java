@@ -0,0 +1,257 @@
+package br.com.bgrant.sfs.objects;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * Free-for-all between any number of fighters in one ring: every fighter can hit any other one in front of it and
+ * the last one standing wins. The first fighter takes its commands from {@link #getPlayerInput()}, the others are
+ * driven by simple computer controllers. Attacks find their target through a {@link SpatialGrid} rebuilt every tick,
+ * so a tick costs about the same per fighter with ten fighters as with hundreds.
+ * Like {@link Match} it has no rendering or input handling.
+ */
+public class Arena {
+
+    public enum State {
+        STARTING,
+        IN_PROGRESS,
+        OVER
+    }
+
+    public static final float START_DELAY = Match.START_ROUND_DELAY;
+    //how often a computer fighter chooses a new action, in seconds
+    public static final float DECISION_INTERVAL = 0.2f;
+    private static final byte LOSE = (byte) Fighter.State.LOSE.ordinal();
+
+    private final Fighter[] fighters;
+    private final FighterStore store;
+    private final SpatialGrid grid;
+    //fighters returned by grid queries
+    private final int[] candidates;
+    //fighter each computer fighter goes after and time until its next decision
+    private final int[] targets;
+    private final float[] decisionTimers;
+    private final InputBuffer playerInput = new InputBuffer();
+    private final RandomXS128 random;
+    private final long seed;
+
+    private State state;
+    private float stateTime;
+    private long tick;
+    private int remaining;
+    private int winner = -1;
+
+    public Arena(Fighter[] fighters, long seed) {
+        if (fighters.length < 2) {
+            throw new IllegalArgumentException("An arena needs at least two fighters: " + fighters.length);
+        }
+        for (Fighter fighter : fighters) {
+            if (fighter.getStore() != fighters[0].getStore()) {
+                throw new IllegalArgumentException("All fighters must be in the same FighterStore");
+            }
+        }
+        this.fighters = fighters;
+        this.store = fighters[0].getStore();
+        this.grid = new SpatialGrid(store.getCapacity());
+        this.candidates = new int[store.getCapacity()];
+        this.targets = new int[store.getCapacity()];
+        this.decisionTimers = new float[store.getCapacity()];
+        this.random = new RandomXS128(seed);
+        this.seed = seed;
+    }
+
+    public Fighter[] getFighters() {
+        return fighters;
+    }
+
+    public Fighter getPlayer() {
+        return fighters[0];
+    }
+
+    public InputBuffer getPlayerInput() {
+        return playerInput;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public float getStateTime() {
+        return stateTime;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return how many fighters haven't lost yet
+     */
+    public int getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * @return the last fighter standing, or null while the fight goes on
+     */
+    public Fighter getWinner() {
+        return winner < 0 ? null : fighters[winner];
+    }
+
+    /**
+     * Spreads the fighters over the ring at random and starts the countdown. Every start with the same seed
+     * plays the same way for the same player input.
+     */
+    public void start() {
+        random.setSeed(seed);
+        for (Fighter fighter : fighters) {
+            int i = fighter.getIndex();
+            store.getReady(i, Match.RING_MIN_X + random.nextFloat() * (Match.RING_MAX_X - Match.RING_MIN_X),
+                Match.RING_MIN_Y + random.nextFloat() * (Match.RING_MAX_Y - Match.RING_MIN_Y));
+            Match.keepWithinRingBounds(store, i);
+            //face the middle of the ring
+            store.facing[i] = (byte) (store.positionX[i] < (Match.RING_MIN_X + Match.RING_MAX_X) * 0.5f ? 1 : -1);
+            //spread the decisions over the ticks instead of making them all at once
+            decisionTimers[i] = random.nextFloat() * DECISION_INTERVAL;
+            targets[i] = -1;
+        }
+        playerInput.clear();
+        state = State.STARTING;
+        stateTime = 0f;
+        remaining = fighters.length;
+        winner = -1;
+    }
+
+    public void update(float deltaTime) {
+        //apply the input issued for this tick before anything moves
+        playerInput.apply(fighters[0], tick);
+        tick++;
+
+        stateTime += deltaTime;
+        if (state == State.STARTING && stateTime >= START_DELAY) {
+            state = State.IN_PROGRESS;
+            stateTime = 0f;
+        }
+        if (state == State.IN_PROGRESS) {
+            for (int n = 1; n < fighters.length; n++) {
+                control(fighters[n], deltaTime);
+            }
+        }
+
+        for (Fighter fighter : fighters) {
+            int i = fighter.getIndex();
+            store.update(i, deltaTime);
+            Match.keepWithinRingBounds(store, i);
+            //fighters face the way they walk
+            if (store.movementX[i] != 0) {
+                store.facing[i] = (byte) (store.movementX[i] < 0 ? -1 : 1);
+            }
+        }
+
+        if (state == State.IN_PROGRESS) {
+            grid.build(store);
+            fighting();
+        }
+    }
+
+    void fighting() {
+        for (int n = 0; n < fighters.length && remaining > 1; n++) {
+            int attacker = fighters[n].getIndex();
+            if (!store.isAttackActive(attacker)) continue;
+            int victim = findVictim(attacker);
+            if (victim < 0) continue;
+            store.getHitBy(victim, attacker);
+            store.madeContact[attacker] = true;
+            if (store.state[victim] == LOSE) {
+                remaining--;
+            }
+        }
+        if (remaining <= 1) {
+            end();
+        }
+    }
+
+    // the closest fighter still standing in front of the attacker and within contact distance, or -1
+    private int findVictim(int attacker) {
+        float x = store.positionX[attacker];
+        float y = store.positionY[attacker];
+        int facing = store.facing[attacker];
+        int victim = -1;
+        float victimDistance = Float.MAX_VALUE;
+        //only the half of the contact area in front of the attacker
+        float minX = facing < 0 ? x - Match.FIGHTER_CONTACT_DISTANCE_X : x;
+        int count = grid.query(minX, y - Match.FIGHTER_CONTACT_DISTANCE_Y,
+            minX + Match.FIGHTER_CONTACT_DISTANCE_X, y + Match.FIGHTER_CONTACT_DISTANCE_Y, candidates);
+        for (int n = 0; n < count; n++) {
+            int i = candidates[n];
+            if (i == attacker || store.state[i] == LOSE) continue;
+            float xDistance = (store.positionX[i] - x) * facing;
+            if (xDistance < 0 || xDistance >= victimDistance
+                || !Match.areWithinContactDistance(x, y, store.positionX[i], store.positionY[i])) continue;
+            victim = i;
+            victimDistance = xDistance;
+        }
+        return victim;
+    }
+
+    private void end() {
+        state = State.OVER;
+        stateTime = 0f;
+        for (int n = 0; n < fighters.length; n++) {
+            if (store.state[fighters[n].getIndex()] != LOSE) {
+                winner = n;
+                fighters[n].win();
+                return;
+            }
+        }
+    }
+
+    // same choices as a player mashing keys: walk towards the target, attack, block or stand still
+    private void control(Fighter fighter, float deltaTime) {
+        int i = fighter.getIndex();
+        if (store.state[i] == LOSE) return;
+        decisionTimers[i] -= deltaTime;
+        if (decisionTimers[i] > 0) return;
+        decisionTimers[i] += DECISION_INTERVAL;
+
+        fighter.stopBlocking();
+        int action = random.nextInt(10);
+        if (action < 5) {
+            approach(fighter, i);
+        } else if (action < 7) {
+            fighter.punch();
+        } else if (action < 8) {
+            fighter.kick();
+        } else if (action < 9) {
+            fighter.block();
+        } else {
+            store.setMovement(i, 0, 0);
+        }
+    }
+
+    private void approach(Fighter fighter, int i) {
+        int target = targets[i];
+        if (target < 0 || store.state[target] == LOSE) {
+            target = targets[i] = pickTarget(i);
+        }
+        float xDistance = store.positionX[target] - store.positionX[i];
+        float yDistance = store.positionY[target] - store.positionY[i];
+        float x = Math.abs(xDistance) > Match.FIGHTER_CONTACT_DISTANCE_X * 0.8f ? Math.signum(xDistance) : 0;
+        float y = Math.abs(yDistance) > Match.FIGHTER_CONTACT_DISTANCE_Y * 0.5f ? Math.signum(yDistance) : 0;
+        store.setMovement(i, x, y);
+        if (xDistance < 0) {
+            fighter.faceLeft();
+        } else {
+            fighter.faceRight();
+        }
+    }
+
+    // any other fighter still standing, there is always one while the fight goes on
+    private int pickTarget(int i) {
+        int n = random.nextInt(fighters.length);
+        while (true) {
+            int candidate = fighters[n].getIndex();
+            if (candidate != i && store.state[candidate] != LOSE) return candidate;
+            n = (n + 1) % fighters.length;
+        }
+    }
+}
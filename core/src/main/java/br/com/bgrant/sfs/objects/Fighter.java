@@ -1,55 +1,29 @@
 package br.com.bgrant.sfs.objects;
 
 import br.com.bgrant.sfs.SFSGame;
-import br.com.bgrant.sfs.resources.Assets;
 import br.com.bgrant.sfs.resources.GlobalVariables;
-import com.badlogic.gdx.assets.AssetManager;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Animation;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.math.MathUtils;
 
 public class Fighter {
 
-    //number of frames rows and columns in each animation sprite sheet
-    private static final int FRAME_ROWS = 2, FRAME_COLS = 3;
     //how fast a fighter can move
     public static final float MOVEMENT_SPEED = 10F;
     //maximum life a fighter can have;
     public static final float MAX_LIFE = 100f;
-    //the amount of damage a fighter's hit will inflict
-    public static final float HIT_STRENGTH = 5F;
-    //factor decrease damage if a fighter gets hit while blocking.
-    public static final float BLOCK_DAMAGE_FACTOR = 0.2f;
 
     //distinguishing details
     private String name;
     private Color color;
 
+    //simulation state lives in the store, this fighter is the slot at index
+    private final FighterStore store;
+    private final int index;
 
-    private State state;
-    private float stateTime;
-    private State renderState;
-    private float renderStateTime;
-    private float life;
-    private int facing;
-    private boolean madeContact;
-
-    //position and movement
-    private final Vector2 position = new Vector2();
-    private final Vector2 movementDirection = new Vector2();
-
-    //animations
-    private Animation<TextureRegion> blockAnimation;
-    private Animation<TextureRegion> hurtAnimation;
-    private Animation<TextureRegion> idleAnimation;
-    private Animation<TextureRegion> kickAnimation;
-    private Animation<TextureRegion> loseAnimation;
-    private Animation<TextureRegion> punchAnimation;
-    private Animation<TextureRegion> walkAnimation;
-    private Animation<TextureRegion> winAnimation;
+    //shared by every fighter drawn from the same atlas, null for fighters that are never rendered
+    private final AnimationSet animations;
 
     //state
     public enum State {
@@ -57,18 +31,25 @@ public class Fighter {
     }
 
     public Fighter(SFSGame game, String name, Color color) {
+        this(game.fighterStore, name, color, game.fighterAnimations);
+    }
+
+    /**
+     * Creates a fighter without any textures, for simulations that never render it.
+     */
+    public Fighter(FighterStore store, String name, Color color) {
+        this(store, name, color, null);
+    }
+
+    /**
+     * Creates a fighter drawn with the given animations.
+     */
+    public Fighter(FighterStore store, String name, Color color, AnimationSet animations) {
         this.name = name;
         this.color = color;
-
-        //initializing the animations
-        initializeBlockAnimation(game.assets.assetManager);
-        initializeHurtAnimation(game.assets.assetManager);
-        initializeIdleAnimation(game.assets.assetManager);
-        initializeKickAnimation(game.assets.assetManager);
-        initializeLoseAnimation(game.assets.assetManager);
-        initializePunchAnimation(game.assets.assetManager);
-        initializeWalkAnimation(game.assets.assetManager);
-        initializeWinAnimation(game.assets.assetManager);
+        this.store = store;
+        this.index = store.add();
+        this.animations = animations;
     }
 
 
@@ -88,297 +69,171 @@ public class Fighter {
         this.color = color;
     }
 
-    public Vector2 getPosition() {
-        return this.position;
+    public FighterStore getStore() {
+        return store;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public float getPositionX() {
+        return store.positionX[index];
+    }
+
+    public float getPositionY() {
+        return store.positionY[index];
+    }
+
+    public State getState() {
+        return FighterStore.toState(store.state[index]);
     }
 
     public float getLife(){
-        return life;
+        return store.life[index];
     }
 
     public void getReady(float positionX, float positionY) {
-        this.state = renderState = State.IDLE;
-        this.stateTime = renderStateTime = 0f;
-        this.position.set(positionX, positionY);
-        this.movementDirection.set(0, 0);
-        this.life = MAX_LIFE;
-        this.madeContact = false;
+        store.getReady(index, positionX, positionY);
 //        this.facing = 1;
     }
 
-    public void render(SpriteBatch batch) {
+    public void render(Batch batch) {
+        render(batch, 1f);
+    }
+
+    /**
+     * Draws the fighter between its previous and current simulation states.
+     *
+     * @param alpha how far the renderer is into the next simulation step, from 0 (previous state) to 1 (current state)
+     */
+    public void render(Batch batch, float alpha) {
+        byte renderState = store.renderState[index];
+        float renderStateTime = store.renderStateTime[index];
+        // interpolate the animation time only while the state didn't change during the last step
+        float animationTime = store.previousRenderState[index] == renderState
+            ? MathUtils.lerp(store.previousRenderStateTime[index], renderStateTime, alpha)
+            : renderStateTime;
+        float positionX = MathUtils.lerp(store.previousPositionX[index], store.positionX[index], alpha);
+        float positionY = MathUtils.lerp(store.previousPositionY[index], store.positionY[index], alpha);
         // get the current animation frame
-        TextureRegion currentFrame;
-        switch (this.renderState) {
-            case BLOCK:
-                currentFrame = blockAnimation.getKeyFrame(renderStateTime, true);
-                break;
-            case HURT:
-                currentFrame = hurtAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case IDLE:
-                currentFrame = idleAnimation.getKeyFrame(renderStateTime, true);
-                break;
-            case KICK:
-                currentFrame = kickAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case LOSE:
-                currentFrame = loseAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case PUNCH:
-                currentFrame = punchAnimation.getKeyFrame(renderStateTime, false);
-                break;
-            case WALK:
-                currentFrame = walkAnimation.getKeyFrame(renderStateTime, true);
-                break;
-            default:
-//            case WIN:
-                currentFrame = winAnimation.getKeyFrame(renderStateTime, true);
-        }
+        TextureAtlas.AtlasRegion frame = animations.getKeyFrame(renderState, animationTime);
+        // frames are trimmed in the atlas, so draw them at their offset inside the original frame and flip
+        // them around the center of the original frame
         batch.setColor(color);
-        batch.draw(currentFrame, position.x, position.y,
-            currentFrame.getRegionWidth() * 0.5f * GlobalVariables.WORLD_SCALE, 0,
-            currentFrame.getRegionWidth() * GlobalVariables.WORLD_SCALE,
-            currentFrame.getRegionHeight() * GlobalVariables.WORLD_SCALE,
-            facing, 1, 0);
+        batch.draw(frame, positionX + frame.offsetX * GlobalVariables.WORLD_SCALE,
+            positionY + frame.offsetY * GlobalVariables.WORLD_SCALE,
+            (frame.originalWidth * 0.5f - frame.offsetX) * GlobalVariables.WORLD_SCALE, 0,
+            frame.packedWidth * GlobalVariables.WORLD_SCALE,
+            frame.packedHeight * GlobalVariables.WORLD_SCALE,
+            store.facing[index], 1, 0);
         batch.setColor(Color.WHITE);
     }
 
     public void update(float deltaTime) {
-        //increment the state time by deltaTime
-        this.stateTime += deltaTime;
-        //only update the render state if delta time is greater than zero
-        if (deltaTime > 0) {
-            this.renderState = this.state;
-            this.renderStateTime = this.stateTime;
-        }
-        if (this.state == State.WALK) {
-            // if the fighter is walking, then move in the direction of the movement direction vector.
-            this.position.x += this.movementDirection.x * MOVEMENT_SPEED * deltaTime;
-            this.position.y += this.movementDirection.y * MOVEMENT_SPEED * deltaTime;
-        } else if (
-            (state == State.KICK && kickAnimation.isAnimationFinished(stateTime))
-                || (punchAnimation.isAnimationFinished(stateTime) && state == State.PUNCH)
-                || (state == State.HURT && hurtAnimation.isAnimationFinished(stateTime))) {
-            // if animation is finished and the movement direction is set, start walking, otherwise, go to IDLE.
-            if (movementDirection.x != 0 || movementDirection.y != 0) {
-                changeState(State.WALK);
-            } else {
-                changeState(State.IDLE);
-            }
-        }
+        store.update(index, deltaTime);
     }
 
     public void faceLeft() {
-        this.facing = -1;
+        store.facing[index] = -1;
     }
 
     public void faceRight() {
-        this.facing = 1;
-    }
-
-    private void changeState(State newState) {
-        this.state = newState;
-        this.stateTime = 0f;
-    }
-
-    private void setMovement(float x, float y) {
-        this.movementDirection.set(x, y);
-        if (state == State.WALK && x == 0 && y == 0) {
-            this.changeState(State.IDLE);
-        } else if (state == State.IDLE && (x != 0 || y != 0)) {
-            this.changeState(State.WALK);
-        }
+        store.facing[index] = 1;
     }
 
     public void moveLeft() {
-        setMovement(-1, movementDirection.y);
+        store.setMovement(index, -1, store.movementY[index]);
     }
 
     public void moveRight() {
-        setMovement(1, movementDirection.y);
+        store.setMovement(index, 1, store.movementY[index]);
     }
 
     public void moveUp() {
-        setMovement(movementDirection.x, 1);
+        store.setMovement(index, store.movementX[index], 1);
     }
 
     public void moveDown() {
-        setMovement(movementDirection.x, -1);
+        store.setMovement(index, store.movementX[index], -1);
     }
 
     public void stopMovingLeft() {
-        if (movementDirection.x == -1) {
-            setMovement(0, movementDirection.y);
+        if (store.movementX[index] == -1) {
+            store.setMovement(index, 0, store.movementY[index]);
         }
     }
 
     public void stopMovingRight() {
-        if (movementDirection.x == 1) {
-            setMovement(0, movementDirection.y);
+        if (store.movementX[index] == 1) {
+            store.setMovement(index, 0, store.movementY[index]);
         }
     }
 
     public void stopMovingUp() {
-        if (movementDirection.y == 1) {
-            setMovement(movementDirection.x, 0);
+        if (store.movementY[index] == 1) {
+            store.setMovement(index, store.movementX[index], 0);
         }
     }
 
     public void stopMovingDown() {
-        if (movementDirection.y == -1) {
-            setMovement(movementDirection.x, 0);
+        if (store.movementY[index] == -1) {
+            store.setMovement(index, store.movementX[index], 0);
         }
     }
 
-    public void block() {
-        if (state == State.IDLE || state == State.WALK) {
-            changeState(State.BLOCK);
-        }
+    public boolean block() {
+        return store.block(index);
     }
 
     public void stopBlocking() {
-        if (state == State.BLOCK) {
-            // if the movement direction is set, state equal WALKING, otherwise, go to IDLE.
-            if (movementDirection.x != 0 || movementDirection.y != 0) {
-                changeState(State.WALK);
-            } else {
-                changeState(State.IDLE);
-            }
-        }
+        store.stopBlocking(index);
     }
 
     public boolean isBlocking() {
-        return state == State.BLOCK;
+        return store.state[index] == State.BLOCK.ordinal();
     }
 
-    public void punch() {
-        if (state == State.IDLE || state == State.WALK) {
-            changeState(State.PUNCH);
-            // just started attacking, so contact hasn't been made yet.
-            this.madeContact = false;
-        }
+    public boolean punch() {
+        return store.attack(index, State.PUNCH);
     }
 
-    public void kick() {
-        if (state == State.IDLE || state == State.WALK) {
-            changeState(State.KICK);
-            // just started attacking, so contact hasn't been made yet.
-            this.madeContact = false;
-        }
+    public boolean kick() {
+        return store.attack(index, State.KICK);
     }
 
     public void makeContact() {
-        this.madeContact = true;
+        store.madeContact[index] = true;
     }
 
     public boolean hasMadeContact() {
-        return this.madeContact;
+        return store.madeContact[index];
     }
 
     public boolean isAttacking() {
-        return state == State.KICK || state == State.PUNCH;
+        return store.state[index] == State.KICK.ordinal() || store.state[index] == State.PUNCH.ordinal();
     }
 
     public boolean isAttackActive() {
-        //the attack is only active if the fighter has not yet made contact and the attack animation has not started.
-        //or is almost finished.
-        if (this.hasMadeContact()) {
-            return false;
-        } else if (state == State.PUNCH) {
-            return stateTime > punchAnimation.getAnimationDuration() * 0.33f && stateTime < punchAnimation.getAnimationDuration() * 0.66f;
-        } else if (state == State.KICK) {
-            return stateTime > kickAnimation.getAnimationDuration() * 0.33f && stateTime < kickAnimation.getAnimationDuration() * 0.66f;
-        } else {
-            return false;
-        }
+        return store.isAttackActive(index);
     }
 
-    public void getHit(float damage) {
-        if (state == State.HURT || state == State.WIN || state == State.LOSE) return;
-        // reduce the life by the damage inflicted by the full amount or a fraction of the damage if fighter is blocking.
-        life -= state == State.BLOCK ? damage * BLOCK_DAMAGE_FACTOR : damage;
-        if (life <= 0) {
-            // if no life remains, lose
-            this.lose();
-        } else if (state != State.BLOCK) {
-            this.changeState(State.HURT);
-        }
+    /**
+     * Takes the damage of the attack the attacker is doing.
+     */
+    public void getHitBy(Fighter attacker) {
+        store.getHitBy(index, attacker.index);
     }
 
     public void lose() {
-        this.changeState(State.LOSE);
-        this.life = 0f;
+        store.lose(index);
     }
 
     public boolean hasLost(){
-        return this.state == State.LOSE;
+        return store.state[index] == State.LOSE.ordinal();
     }
 
     public void win(){
-        this.changeState(State.WIN);
-    }
-
-    private void initializeWinAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.WIN_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.winAnimation = new Animation<TextureRegion>(0.05f, frames);
-    }
-
-    private void initializeWalkAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.WALK_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.walkAnimation = new Animation<TextureRegion>(0.08f, frames);
-    }
-
-    private void initializePunchAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.PUNCH_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.punchAnimation = new Animation<TextureRegion>(0.05f, frames);
-    }
-
-    private void initializeLoseAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.LOSE_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.loseAnimation = new Animation<TextureRegion>(0.05f, frames);
-    }
-
-    private void initializeKickAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.KICK_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.kickAnimation = new Animation<TextureRegion>(0.05f, frames);
-    }
-
-    private void initializeIdleAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.IDLE_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.idleAnimation = new Animation<TextureRegion>(0.1f, frames);
-    }
-
-
-    private void initializeHurtAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.HURT_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.hurtAnimation = new Animation<TextureRegion>(0.03f, frames);
-    }
-
-    private void initializeBlockAnimation(AssetManager assetManager) {
-        Texture spriteSheet = assetManager.get(Assets.BLOCK_SPRITE_SHEET);
-        TextureRegion[] frames = getAnimationFrames(spriteSheet);
-        this.blockAnimation = new Animation<TextureRegion>(0.05f, frames);
-    }
-
-    private TextureRegion[] getAnimationFrames(Texture spriteSheet) {
-        TextureRegion[][] tmp = TextureRegion.split(spriteSheet, spriteSheet.getWidth() / FRAME_COLS,
-            spriteSheet.getHeight() / FRAME_ROWS);
-        TextureRegion[] frames = new TextureRegion[FRAME_ROWS * FRAME_COLS];
-        int index = 0;
-        for (int i = 0; i < FRAME_ROWS; i++) {
-            for (int j = 0; j < FRAME_COLS; j++) {
-                frames[index] = tmp[i][j];
-                index++;
-            }
-        }
-        return frames;
+        store.win(index);
     }
 }
@@ -0,0 +1,298 @@
+package br.com.bgrant.sfs.objects;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Simulation state of many fighters, kept in primitive parallel arrays indexed by fighter slot.
+ * It holds everything the fight logic needs and nothing used for drawing, so it works without any
+ * loaded textures, can be updated in tight loops and copied cheaply with {@link #copyFrom(FighterStore)}.
+ * Move timings and damage come from the {@link FrameData} it was created with.
+ * A {@link Fighter} is a handle to one slot that adds the name, color and animations used to render it.
+ */
+public class FighterStore {
+
+    //frames in each animation sprite sheet
+    public static final int FRAMES_PER_ANIMATION = 6;
+
+    private static final Fighter.State[] STATES = Fighter.State.values();
+    private static final byte BLOCK = (byte) Fighter.State.BLOCK.ordinal();
+    private static final byte HURT = (byte) Fighter.State.HURT.ordinal();
+    private static final byte IDLE = (byte) Fighter.State.IDLE.ordinal();
+    private static final byte KICK = (byte) Fighter.State.KICK.ordinal();
+    private static final byte LOSE = (byte) Fighter.State.LOSE.ordinal();
+    private static final byte PUNCH = (byte) Fighter.State.PUNCH.ordinal();
+    private static final byte WALK = (byte) Fighter.State.WALK.ordinal();
+    private static final byte WIN = (byte) Fighter.State.WIN.ordinal();
+
+    private final int capacity;
+    private int size;
+    //tables indexed by state ordinal
+    private final FrameData frameData;
+    private final float[] animationDuration, activeStart, activeEnd;
+
+    //position and movement
+    public final float[] positionX, positionY;
+    //position at the start of the last update, used to interpolate rendering
+    public final float[] previousPositionX, previousPositionY;
+    public final float[] movementX, movementY;
+
+    //state
+    public final byte[] state;
+    public final float[] stateTime;
+    public final byte[] renderState;
+    public final float[] renderStateTime;
+    public final byte[] previousRenderState;
+    public final float[] previousRenderStateTime;
+    public final float[] life;
+    public final byte[] facing;
+    public final boolean[] madeContact;
+
+    /**
+     * @param frameData may be null for a store that is only copied into and out of, like a snapshot
+     */
+    public FighterStore(int capacity, FrameData frameData) {
+        this.capacity = capacity;
+        this.frameData = frameData;
+        this.animationDuration = frameData == null ? null : frameData.animationDuration;
+        this.activeStart = frameData == null ? null : frameData.activeStart;
+        this.activeEnd = frameData == null ? null : frameData.activeEnd;
+        positionX = new float[capacity];
+        positionY = new float[capacity];
+        previousPositionX = new float[capacity];
+        previousPositionY = new float[capacity];
+        movementX = new float[capacity];
+        movementY = new float[capacity];
+        state = new byte[capacity];
+        stateTime = new float[capacity];
+        renderState = new byte[capacity];
+        renderStateTime = new float[capacity];
+        previousRenderState = new byte[capacity];
+        previousRenderStateTime = new float[capacity];
+        life = new float[capacity];
+        facing = new byte[capacity];
+        madeContact = new boolean[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public FrameData getFrameData() {
+        return frameData;
+    }
+
+    /**
+     * Reserves the next free slot and returns its index.
+     */
+    public int add() {
+        if (size == capacity) {
+            throw new IllegalStateException("Fighter store is full: " + capacity);
+        }
+        int index = size++;
+        getReady(index, 0f, 0f);
+        return index;
+    }
+
+    public static Fighter.State toState(byte stateOrdinal) {
+        return STATES[stateOrdinal];
+    }
+
+    /**
+     * Copies the state of every fighter in {@code other} into this store, which must be at least as large.
+     */
+    public void copyFrom(FighterStore other) {
+        int n = other.size;
+        System.arraycopy(other.positionX, 0, positionX, 0, n);
+        System.arraycopy(other.positionY, 0, positionY, 0, n);
+        System.arraycopy(other.previousPositionX, 0, previousPositionX, 0, n);
+        System.arraycopy(other.previousPositionY, 0, previousPositionY, 0, n);
+        System.arraycopy(other.movementX, 0, movementX, 0, n);
+        System.arraycopy(other.movementY, 0, movementY, 0, n);
+        System.arraycopy(other.state, 0, state, 0, n);
+        System.arraycopy(other.stateTime, 0, stateTime, 0, n);
+        System.arraycopy(other.renderState, 0, renderState, 0, n);
+        System.arraycopy(other.renderStateTime, 0, renderStateTime, 0, n);
+        System.arraycopy(other.previousRenderState, 0, previousRenderState, 0, n);
+        System.arraycopy(other.previousRenderStateTime, 0, previousRenderStateTime, 0, n);
+        System.arraycopy(other.life, 0, life, 0, n);
+        System.arraycopy(other.facing, 0, facing, 0, n);
+        System.arraycopy(other.madeContact, 0, madeContact, 0, n);
+        size = n;
+    }
+
+    /**
+     * Writes the state of every fighter into the buffer, see {@link #read(ByteBuffer)}.
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.put((byte) size);
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(positionX[i]).putFloat(positionY[i])
+                .putFloat(previousPositionX[i]).putFloat(previousPositionY[i])
+                .putFloat(movementX[i]).putFloat(movementY[i])
+                .put(state[i]).putFloat(stateTime[i])
+                .put(renderState[i]).putFloat(renderStateTime[i])
+                .put(previousRenderState[i]).putFloat(previousRenderStateTime[i])
+                .putFloat(life[i])
+                .put(facing[i])
+                .put((byte) (madeContact[i] ? 1 : 0));
+        }
+    }
+
+    /**
+     * Replaces the state of every fighter with the one written by {@link #write(ByteBuffer)}.
+     */
+    public void read(ByteBuffer buffer) {
+        size = buffer.get();
+        for (int i = 0; i < size; i++) {
+            positionX[i] = buffer.getFloat();
+            positionY[i] = buffer.getFloat();
+            previousPositionX[i] = buffer.getFloat();
+            previousPositionY[i] = buffer.getFloat();
+            movementX[i] = buffer.getFloat();
+            movementY[i] = buffer.getFloat();
+            state[i] = buffer.get();
+            stateTime[i] = buffer.getFloat();
+            renderState[i] = buffer.get();
+            renderStateTime[i] = buffer.getFloat();
+            previousRenderState[i] = buffer.get();
+            previousRenderStateTime[i] = buffer.getFloat();
+            life[i] = buffer.getFloat();
+            facing[i] = buffer.get();
+            madeContact[i] = buffer.get() != 0;
+        }
+    }
+
+    public void getReady(int i, float positionX, float positionY) {
+        state[i] = renderState[i] = previousRenderState[i] = IDLE;
+        stateTime[i] = renderStateTime[i] = previousRenderStateTime[i] = 0f;
+        this.positionX[i] = previousPositionX[i] = positionX;
+        this.positionY[i] = previousPositionY[i] = positionY;
+        movementX[i] = movementY[i] = 0f;
+        life[i] = Fighter.MAX_LIFE;
+        madeContact[i] = false;
+    }
+
+    /**
+     * Updates every fighter in the store.
+     */
+    public void update(float deltaTime) {
+        for (int i = 0; i < size; i++) {
+            update(i, deltaTime);
+        }
+    }
+
+    public void update(int i, float deltaTime) {
+        //remember where this step started so rendering can interpolate towards the new state
+        previousPositionX[i] = positionX[i];
+        previousPositionY[i] = positionY[i];
+        previousRenderState[i] = renderState[i];
+        previousRenderStateTime[i] = renderStateTime[i];
+        //increment the state time by deltaTime
+        stateTime[i] += deltaTime;
+        //only update the render state if delta time is greater than zero
+        if (deltaTime > 0) {
+            renderState[i] = state[i];
+            renderStateTime[i] = stateTime[i];
+        }
+        byte current = state[i];
+        if (current == WALK) {
+            // if the fighter is walking, then move in the direction of the movement direction vector.
+            positionX[i] += movementX[i] * Fighter.MOVEMENT_SPEED * deltaTime;
+            positionY[i] += movementY[i] * Fighter.MOVEMENT_SPEED * deltaTime;
+        } else if ((current == KICK || current == PUNCH || current == HURT) && stateTime[i] >= animationDuration[current]) {
+            // if animation is finished and the movement direction is set, start walking, otherwise, go to IDLE.
+            changeState(i, isMoving(i) ? WALK : IDLE);
+        }
+    }
+
+    private boolean isMoving(int i) {
+        return movementX[i] != 0 || movementY[i] != 0;
+    }
+
+    private void changeState(int i, byte newState) {
+        state[i] = newState;
+        stateTime[i] = 0f;
+    }
+
+    public void setMovement(int i, float x, float y) {
+        movementX[i] = x;
+        movementY[i] = y;
+        if (state[i] == WALK && x == 0 && y == 0) {
+            changeState(i, IDLE);
+        } else if (state[i] == IDLE && (x != 0 || y != 0)) {
+            changeState(i, WALK);
+        }
+    }
+
+    /**
+     * @return whether the fighter started blocking, it can only block while idle or walking
+     */
+    public boolean block(int i) {
+        if (state[i] == IDLE || state[i] == WALK) {
+            changeState(i, BLOCK);
+            return true;
+        }
+        return false;
+    }
+
+    public void stopBlocking(int i) {
+        if (state[i] == BLOCK) {
+            // if the movement direction is set, state equal WALKING, otherwise, go to IDLE.
+            changeState(i, isMoving(i) ? WALK : IDLE);
+        }
+    }
+
+    /**
+     * @return whether the fighter started the attack, it can only attack while idle or walking
+     */
+    public boolean attack(int i, Fighter.State attack) {
+        if (state[i] == IDLE || state[i] == WALK) {
+            changeState(i, (byte) attack.ordinal());
+            // just started attacking, so contact hasn't been made yet.
+            madeContact[i] = false;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isAttackActive(int i) {
+        //the attack is only active during its active frames and until it makes contact,
+        //moves that aren't attacks have an empty active window.
+        byte current = state[i];
+        return !madeContact[i] && stateTime[i] >= activeStart[current] && stateTime[i] < activeEnd[current];
+    }
+
+    /**
+     * Hits the fighter with the attack the attacker is doing, for the damage of that move in the frame data.
+     */
+    public void getHitBy(int i, int attacker) {
+        byte move = state[attacker];
+        getHit(i, frameData.damage[move], frameData.blockDamage[move]);
+    }
+
+    public void getHit(int i, float damage, float blockDamage) {
+        byte current = state[i];
+        if (current == HURT || current == WIN || current == LOSE) return;
+        // reduce the life by the damage inflicted, or by the block damage if fighter is blocking.
+        life[i] -= current == BLOCK ? blockDamage : damage;
+        if (life[i] <= 0) {
+            // if no life remains, lose
+            lose(i);
+        } else if (current != BLOCK) {
+            changeState(i, HURT);
+        }
+    }
+
+    public void lose(int i) {
+        changeState(i, LOSE);
+        life[i] = 0f;
+    }
+
+    public void win(int i) {
+        changeState(i, WIN);
+    }
+}
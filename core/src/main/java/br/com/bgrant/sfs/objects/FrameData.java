@@ -0,0 +1,92 @@
+package br.com.bgrant.sfs.objects;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+import java.util.Locale;
+
+/**
+ * Timing and damage of every move, read from {@link #FILE} and compiled into flat arrays indexed by
+ * {@link Fighter.State} ordinal, so the simulation looks values up instead of deriving them every tick.
+ * Each move has the duration of its animation frames. Attacks also split their frames into startup, active and
+ * recovery frames, and only hit during the active ones, for {@code damage}, or {@code blockDamage} if the other
+ * fighter blocks.
+ */
+public class FrameData {
+
+    public static final String FILE = "data/frame_data.json";
+
+    //indexed by Fighter.State ordinal, times in seconds
+    final float[] frameDuration;
+    final float[] animationDuration;
+    //the attack hits from the start up to the end of its active frames, both are 0 for other moves
+    final float[] activeStart;
+    final float[] activeEnd;
+    final float[] damage;
+    final float[] blockDamage;
+
+    private FrameData(int moves) {
+        frameDuration = new float[moves];
+        animationDuration = new float[moves];
+        activeStart = new float[moves];
+        activeEnd = new float[moves];
+        damage = new float[moves];
+        blockDamage = new float[moves];
+    }
+
+    public static FrameData load(FileHandle file) {
+        Fighter.State[] states = Fighter.State.values();
+        FrameData data = new FrameData(states.length);
+        boolean[] found = new boolean[states.length];
+        for (JsonValue move : new JsonReader().parse(file)) {
+            Fighter.State state;
+            try {
+                state = Fighter.State.valueOf(move.getString("state").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new GdxRuntimeException("Unknown state " + move.getString("state") + " in " + file, e);
+            }
+            int i = state.ordinal();
+            found[i] = true;
+            float frame = move.getFloat("frameDuration");
+            data.frameDuration[i] = frame;
+            data.animationDuration[i] = frame * FighterStore.FRAMES_PER_ANIMATION;
+
+            int activeFrames = move.getInt("activeFrames", 0);
+            if (activeFrames == 0) continue;
+            int startupFrames = move.getInt("startupFrames");
+            int recoveryFrames = move.getInt("recoveryFrames");
+            if (startupFrames + activeFrames + recoveryFrames != FighterStore.FRAMES_PER_ANIMATION) {
+                throw new GdxRuntimeException("The frames of " + state + " in " + file + " don't add up to "
+                    + FighterStore.FRAMES_PER_ANIMATION);
+            }
+            data.activeStart[i] = startupFrames * frame;
+            data.activeEnd[i] = (startupFrames + activeFrames) * frame;
+            data.damage[i] = move.getFloat("damage");
+            data.blockDamage[i] = move.getFloat("blockDamage");
+        }
+        for (Fighter.State state : states) {
+            if (!found[state.ordinal()]) {
+                throw new GdxRuntimeException("No frame data for " + state + " in " + file);
+            }
+        }
+        return data;
+    }
+
+    public float getFrameDuration(Fighter.State state) {
+        return frameDuration[state.ordinal()];
+    }
+
+    public float getAnimationDuration(Fighter.State state) {
+        return animationDuration[state.ordinal()];
+    }
+
+    public float getDamage(Fighter.State state) {
+        return damage[state.ordinal()];
+    }
+
+    public float getBlockDamage(Fighter.State state) {
+        return blockDamage[state.ordinal()];
+    }
+}
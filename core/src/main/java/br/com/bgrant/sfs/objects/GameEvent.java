@@ -0,0 +1,69 @@
+package br.com.bgrant.sfs.objects;
+
+/**
+ * Encodes what happened in a {@link Match} into a single long, so events can go through a
+ * {@link br.com.bgrant.sfs.concurrent.BroadcastRing} without allocating. From the top bits down: the type, two
+ * bytes that depend on it, a flag and a float value. There is no room left for the tick, so the match publishes a
+ * {@link Type#TICK} before the first event of every tick instead.
+ */
+public final class GameEvent {
+
+    public enum Type {
+        //first: attacker index, second: defender index, flag: blocked, value: damage
+        HIT,
+        //first: round number
+        ROUND_START,
+        //first: round number, the fighters can move
+        FIGHT,
+        //first: winner index, second: loser index, flag: time ran out, value: seconds fought
+        ROUND_END,
+        //first: winner index, second: loser index
+        GAME_OVER,
+        //the tick of the events after it, see tick(long)
+        TICK;
+
+        static final Type[] VALUES = values();
+    }
+
+    private static final int FLAG = 1;
+    private static final long TICK_MASK = (1L << 56) - 1;
+
+    private GameEvent() {
+    }
+
+    public static long encode(Type type, int first, int second, boolean flag, float value) {
+        return (long) type.ordinal() << 56 | (long) (first & 0xFF) << 48 | (long) (second & 0xFF) << 40
+            | (flag ? (long) FLAG << 32 : 0L) | Float.floatToRawIntBits(value) & 0xFFFFFFFFL;
+    }
+
+    public static long encodeTick(long tick) {
+        return (long) Type.TICK.ordinal() << 56 | tick & TICK_MASK;
+    }
+
+    public static Type type(long event) {
+        return Type.VALUES[(int) (event >>> 56)];
+    }
+
+    public static int first(long event) {
+        return (int) (event >>> 48) & 0xFF;
+    }
+
+    public static int second(long event) {
+        return (int) (event >>> 40) & 0xFF;
+    }
+
+    public static boolean flag(long event) {
+        return ((int) (event >>> 32) & FLAG) != 0;
+    }
+
+    public static float value(long event) {
+        return Float.intBitsToFloat((int) event);
+    }
+
+    /**
+     * @return the tick of a {@link Type#TICK} event
+     */
+    public static long tick(long event) {
+        return event & TICK_MASK;
+    }
+}
@@ -0,0 +1,181 @@
+package br.com.bgrant.sfs.objects;
+
+import br.com.bgrant.sfs.resources.GlobalVariables;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Ring buffer of input commands for one fighter, each stamped with the simulation tick it was issued for.
+ * Input events only add commands, {@link Match#update(float)} applies them at the start of every tick, so the
+ * delay between a key press and the action doesn't depend on when the event arrived within the frame.
+ * Block and attack commands the fighter can't do yet, for example while hurt, stay buffered for a few ticks
+ * and fire as soon as the fighter recovers. It doesn't allocate after construction.
+ */
+public class InputBuffer {
+
+    public enum Command {
+        MOVE_LEFT,
+        MOVE_RIGHT,
+        MOVE_UP,
+        MOVE_DOWN,
+        STOP_MOVING_LEFT,
+        STOP_MOVING_RIGHT,
+        STOP_MOVING_UP,
+        STOP_MOVING_DOWN,
+        BLOCK,
+        STOP_BLOCKING,
+        PUNCH,
+        KICK
+    }
+
+    public static final int DEFAULT_CAPACITY = 64;
+    private static final Command[] COMMANDS = Command.values();
+    //marks a command cancelled while it was buffered
+    private static final byte NONE = -1;
+
+    private final byte[] commands;
+    private final long[] ticks;
+    private int head, size;
+    private int windowTicks = GlobalVariables.INPUT_BUFFER_TICKS;
+
+    public InputBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InputBuffer(int capacity) {
+        commands = new byte[capacity];
+        ticks = new long[capacity];
+    }
+
+    public int getWindowTicks() {
+        return windowTicks;
+    }
+
+    /**
+     * Sets for how many ticks a block or attack waits for the fighter to be able to do it. Zero drops it right away.
+     */
+    public void setWindowTicks(int windowTicks) {
+        this.windowTicks = windowTicks;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = size = 0;
+    }
+
+    /**
+     * Adds a command issued for the given tick.
+     *
+     * @return false if the buffer is full and the command was dropped
+     */
+    public boolean add(Command command, long tick) {
+        if (size == commands.length) return false;
+        if (command == Command.STOP_BLOCKING) {
+            //a block that is still waiting must not fire after the key was released
+            cancel(Command.BLOCK);
+        }
+        int i = (head + size) % commands.length;
+        commands[i] = (byte) command.ordinal();
+        ticks[i] = tick;
+        size++;
+        return true;
+    }
+
+    /**
+     * Writes the buffered commands, so a replay keyframe can restore them with {@link #read(ByteBuffer)}.
+     */
+    public void write(ByteBuffer buffer) {
+        buffer.put((byte) size);
+        for (int n = 0; n < size; n++) {
+            int i = (head + n) % commands.length;
+            buffer.put(commands[i]).putLong(ticks[i]);
+        }
+    }
+
+    public void read(ByteBuffer buffer) {
+        clear();
+        int count = buffer.get();
+        for (int i = 0; i < count; i++) {
+            commands[i] = buffer.get();
+            ticks[i] = buffer.getLong();
+        }
+        size = count;
+    }
+
+    private void cancel(Command command) {
+        for (int n = 0; n < size; n++) {
+            int i = (head + n) % commands.length;
+            if (commands[i] == command.ordinal()) {
+                commands[i] = NONE;
+            }
+        }
+    }
+
+    /**
+     * Applies every command issued up to the given tick to the fighter, in order. Blocks and attacks the fighter
+     * can't do yet are kept until they are older than the window.
+     */
+    public void apply(Fighter fighter, long tick) {
+        int pending = size;
+        for (int n = 0; n < pending; n++) {
+            byte command = commands[head];
+            long issued = ticks[head];
+            head = (head + 1) % commands.length;
+            size--;
+            if (command == NONE) continue;
+            if (issued > tick || !execute(fighter, COMMANDS[command]) && tick - issued < windowTicks) {
+                //not due yet or not possible yet, put it back in the same order
+                int i = (head + size) % commands.length;
+                commands[i] = command;
+                ticks[i] = issued;
+                size++;
+            }
+        }
+    }
+
+    /**
+     * @return false if the fighter couldn't do the command in its current state
+     */
+    private static boolean execute(Fighter fighter, Command command) {
+        switch (command) {
+            case MOVE_LEFT:
+                fighter.moveLeft();
+                return true;
+            case MOVE_RIGHT:
+                fighter.moveRight();
+                return true;
+            case MOVE_UP:
+                fighter.moveUp();
+                return true;
+            case MOVE_DOWN:
+                fighter.moveDown();
+                return true;
+            case STOP_MOVING_LEFT:
+                fighter.stopMovingLeft();
+                return true;
+            case STOP_MOVING_RIGHT:
+                fighter.stopMovingRight();
+                return true;
+            case STOP_MOVING_UP:
+                fighter.stopMovingUp();
+                return true;
+            case STOP_MOVING_DOWN:
+                fighter.stopMovingDown();
+                return true;
+            case BLOCK:
+                return fighter.block();
+            case STOP_BLOCKING:
+                fighter.stopBlocking();
+                return true;
+            case PUNCH:
+                return fighter.punch();
+            case KICK:
+                return fighter.kick();
+            default:
+                return true;
+        }
+    }
+}
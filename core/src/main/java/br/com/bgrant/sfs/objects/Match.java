@@ -0,0 +1,369 @@
+package br.com.bgrant.sfs.objects;
+
+import br.com.bgrant.sfs.concurrent.BroadcastRing;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+
+/**
+ * Round and fight logic of a match between the player and the opponent.
+ * It has no rendering or input handling, so it can be driven by the {@link br.com.bgrant.sfs.screens.GameScreen}
+ * as well as by tools that simulate matches without a window.
+ */
+public class Match {
+
+    //Game
+    public enum GameState {
+        RUNNING,
+        PAUSED,
+        GAME_OVER
+    }
+
+    //rounds
+    public enum RoundState {
+        STARTING,
+        IN_PROGRESS,
+        ENDING
+    }
+
+    public static final float START_ROUND_DELAY = 3f;
+    public static final float END_ROUND_DELAY = 3f;
+    public static final int MAX_ROUNDS = 3;
+    public static final float MAX_ROUND_TIME = 99.99F;
+
+    //boundaries for the fighters
+    public static final float RING_MIN_X = 7F;
+    public static final float RING_MAX_X = 60F;
+    public static final float RING_MIN_Y = 4F;
+    public static final float RING_MAX_Y = 22f;
+    public static final float RING_SLOPE = 3.16f;
+
+    // fighters initial positions
+    public static final float PLAYER_START_POSITION_X = 16f;
+    public static final float OPPONENT_START_POSITION_X = 51f;
+    public static final float FIGHTER_START_POSITION_Y = 15f;
+    public static final float FIGHTER_CONTACT_DISTANCE_X = 7.5f;
+    public static final float FIGHTER_CONTACT_DISTANCE_Y = 1.5f;
+
+    private final Fighter player;
+    private final Fighter opponent;
+    //commands for each fighter, applied at the start of every tick
+    private final InputBuffer playerInput = new InputBuffer();
+    private final InputBuffer opponentInput = new InputBuffer();
+    //number of updates so far, the tick the next update simulates
+    private long tick;
+    //where hits and round changes are published, see GameEvent, null for none
+    private BroadcastRing events;
+    //the tick of the last GameEvent.Type.TICK published, -1 for none yet
+    private long eventTick = -1;
+
+    private GameState gameState;
+    //game
+    private GlobalVariables.Difficult difficulty = GlobalVariables.Difficult.EASY;
+    private RoundState roundState;
+    private float roundStateTime;
+    private int currentRound;
+    private int roundsWon = 0, roundsLost = 0;
+    private float roundTimer = MAX_ROUND_TIME;
+
+    public Match(Fighter player, Fighter opponent) {
+        if (player.getStore() != opponent.getStore()) {
+            //snapshots copy a single store
+            throw new IllegalArgumentException("Both fighters must be in the same FighterStore");
+        }
+        this.player = player;
+        this.opponent = opponent;
+    }
+
+    public Fighter getPlayer() {
+        return player;
+    }
+
+    public Fighter getOpponent() {
+        return opponent;
+    }
+
+    public InputBuffer getPlayerInput() {
+        return playerInput;
+    }
+
+    public InputBuffer getOpponentInput() {
+        return opponentInput;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public BroadcastRing getEvents() {
+        return events;
+    }
+
+    /**
+     * Sets where the match publishes its {@link GameEvent}s. Code that simulates ticks again, like replay seeking,
+     * sets it to null meanwhile so the events aren't published twice.
+     */
+    public void setEvents(BroadcastRing events) {
+        this.events = events;
+        eventTick = -1;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public GlobalVariables.Difficult getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(GlobalVariables.Difficult difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public RoundState getRoundState() {
+        return roundState;
+    }
+
+    public float getRoundStateTime() {
+        return roundStateTime;
+    }
+
+    public int getCurrentRound() {
+        return currentRound;
+    }
+
+    public int getRoundsWon() {
+        return roundsWon;
+    }
+
+    public int getRoundsLost() {
+        return roundsLost;
+    }
+
+    public float getRoundTimer() {
+        return roundTimer;
+    }
+
+    /**
+     * Copies the state of the match and of both fighters into the snapshot. Input still buffered isn't included.
+     */
+    public void save(MatchSnapshot snapshot) {
+        snapshot.fighters.copyFrom(player.getStore());
+        snapshot.gameState = gameState;
+        snapshot.roundState = roundState;
+        snapshot.roundStateTime = roundStateTime;
+        snapshot.currentRound = currentRound;
+        snapshot.roundsWon = roundsWon;
+        snapshot.roundsLost = roundsLost;
+        snapshot.roundTimer = roundTimer;
+        snapshot.tick = tick;
+    }
+
+    /**
+     * Puts the match and both fighters back to the state saved in the snapshot.
+     */
+    public void restore(MatchSnapshot snapshot) {
+        player.getStore().copyFrom(snapshot.fighters);
+        gameState = snapshot.gameState;
+        roundState = snapshot.roundState;
+        roundStateTime = snapshot.roundStateTime;
+        currentRound = snapshot.currentRound;
+        roundsWon = snapshot.roundsWon;
+        roundsLost = snapshot.roundsLost;
+        roundTimer = snapshot.roundTimer;
+        tick = snapshot.tick;
+    }
+
+    public void startGame() {
+        gameState = GameState.RUNNING;
+        roundsWon = roundsLost = 0;
+        //start round 1
+        this.currentRound = 1;
+        this.startRound();
+    }
+
+    private void startRound() {
+        // get the fighters ready
+        this.player.getReady(PLAYER_START_POSITION_X, FIGHTER_START_POSITION_Y);
+        this.opponent.getReady(OPPONENT_START_POSITION_X, FIGHTER_START_POSITION_Y);
+        this.playerInput.clear();
+        this.opponentInput.clear();
+
+        //start the round
+        this.roundState = RoundState.STARTING;
+        roundStateTime = 0f;
+        roundTimer = MAX_ROUND_TIME;
+        publish(GameEvent.encode(GameEvent.Type.ROUND_START, currentRound, 0, false, 0f));
+    }
+
+    private void endRound() {
+        //End the round
+        this.roundState = RoundState.ENDING;
+        this.roundStateTime = 0f;
+    }
+
+    private void windRound(boolean timeOut) {
+        //the player wins the round and the opponent loses
+        player.win();
+        opponent.lose();
+        roundsWon++;
+        publish(GameEvent.encode(GameEvent.Type.ROUND_END, player.getIndex(), opponent.getIndex(), timeOut,
+            MAX_ROUND_TIME - roundTimer));
+        //End the round
+        endRound();
+    }
+
+    private void loseRound(boolean timeOut) {
+        //the player loses the round and the opponent wins
+        player.lose();
+        opponent.win();
+        roundsLost++;
+        publish(GameEvent.encode(GameEvent.Type.ROUND_END, opponent.getIndex(), player.getIndex(), timeOut,
+            MAX_ROUND_TIME - roundTimer));
+        //End the round
+        endRound();
+    }
+
+    private void publish(long event) {
+        if (events == null) return;
+        if (tick != eventTick) {
+            //subscribers stamp the events after it with this tick
+            events.publish(GameEvent.encodeTick(tick));
+            eventTick = tick;
+        }
+        events.publish(event);
+    }
+
+    public void update(float deltaTime) {
+        //apply the input issued for this tick before anything moves
+        playerInput.apply(player, tick);
+        opponentInput.apply(opponent, tick);
+        tick++;
+
+        if (roundState == RoundState.STARTING && roundStateTime >= START_ROUND_DELAY) {
+            //if the time start round has been reached, start the fight.
+            roundState = RoundState.IN_PROGRESS;
+            roundStateTime = 0f;
+            publish(GameEvent.encode(GameEvent.Type.FIGHT, currentRound, 0, false, 0f));
+        } else if (roundState == RoundState.ENDING && roundStateTime >= END_ROUND_DELAY) {
+            // if the end round delay has been reached and the player has won or lost more the half of the max numbers of rounds,
+            // end the game, otherwise, start the next round.
+            if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
+                gameState = GameState.GAME_OVER;
+                Fighter winner = roundsWon > roundsLost ? player : opponent;
+                Fighter loser = winner == player ? opponent : player;
+                publish(GameEvent.encode(GameEvent.Type.GAME_OVER, winner.getIndex(), loser.getIndex(), false, 0f));
+            } else {
+                currentRound++;
+                startRound();
+            }
+        } else {
+            //increment the round state time by the delta time
+            roundStateTime += deltaTime;
+        }
+
+        this.player.update(deltaTime);
+        this.opponent.update(deltaTime);
+
+        // make sure they face each other
+        if (player.getPositionX() <= opponent.getPositionX()) {
+            player.faceRight();
+            opponent.faceLeft();
+        } else {
+            player.faceLeft();
+            opponent.faceRight();
+        }
+
+        // keep the fighters within the bounds of the ring.
+        keepWithinRingBounds(player.getStore(), player.getIndex());
+        keepWithinRingBounds(opponent.getStore(), opponent.getIndex());
+
+        //check if the round state is in progress
+        if (roundState == RoundState.IN_PROGRESS) {
+            roundTimer -= deltaTime;
+
+            //check if the round timer has reached zero
+            if (roundTimer <= 0) {
+                // who has the more life to spare, won the game
+                if (player.getLife() >= opponent.getLife()) {
+                    windRound(true);
+                } else {
+                    loseRound(true);
+                }
+            } else {
+                //the round already ended if the time ran out
+                fighting();
+            }
+        }
+    }
+
+    void fighting() {
+        //check if fighters are within contact distance.
+        if (areWithinContactDistance(player, opponent)) {
+            //both attacks are checked before either lands, so attacks in the same tick trade hits
+            boolean playerHits = player.isAttackActive();
+            boolean opponentHits = opponent.isAttackActive();
+            boolean lifeTaken = false;
+            if (playerHits) {
+                //if the player is attacking, then the opponent should get hit.
+                lifeTaken = hit(player, opponent);
+            }
+            if (opponentHits) {
+                //the opponent hits the player the same way
+                lifeTaken |= hit(opponent, player);
+            }
+
+            //only a hit that took life can end the round
+            if (!lifeTaken) return;
+            if (this.opponent.hasLost()) {
+                // the player wins the round
+                this.windRound(false);
+            } else if (this.player.hasLost()) {
+                // the opponent wins the round
+                this.loseRound(false);
+            }
+        }
+    }
+
+    // returns whether the hit took any life
+    private boolean hit(Fighter attacker, Fighter defender) {
+        float life = defender.getLife();
+        boolean blocked = defender.isBlocking();
+        defender.getHitBy(attacker);
+        // deactivate the attack
+        attacker.makeContact();
+        //a fighter already hurt or out of the round takes no hit
+        if (blocked || defender.getLife() < life) {
+            publish(GameEvent.encode(GameEvent.Type.HIT, attacker.getIndex(), defender.getIndex(), blocked,
+                life - defender.getLife()));
+        }
+        return defender.getLife() < life;
+    }
+
+    public static void keepWithinRingBounds(FighterStore store, int i) {
+        float x = store.positionX[i];
+        float y = store.positionY[i];
+        if (y < RING_MIN_Y) {
+            y = RING_MIN_Y;
+        } else if (y > RING_MAX_Y) {
+            y = RING_MAX_Y;
+        }
+        if (x < y / RING_SLOPE + RING_MIN_X) {
+            x = y / RING_SLOPE + RING_MIN_X;
+        } else if (x > y / -RING_SLOPE + RING_MAX_X) {
+            x = y / -RING_SLOPE + RING_MAX_X;
+        }
+        store.positionX[i] = x;
+        store.positionY[i] = y;
+    }
+
+    public static boolean areWithinContactDistance(Fighter fighter1, Fighter fighter2) {
+        return areWithinContactDistance(fighter1.getPositionX(), fighter1.getPositionY(),
+            fighter2.getPositionX(), fighter2.getPositionY());
+    }
+
+    public static boolean areWithinContactDistance(float x1, float y1, float x2, float y2) {
+        //determine if the positions are within the distance in which contact is possible
+        float xDistance = Math.abs(x1 - x2);
+        float yDistance = Math.abs(y1 - y2);
+        return xDistance <= FIGHTER_CONTACT_DISTANCE_X && yDistance <= FIGHTER_CONTACT_DISTANCE_Y;
+    }
+}
@@ -0,0 +1,61 @@
+package br.com.bgrant.sfs.objects;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Everything needed to put a {@link Match} back to an earlier tick: the state of both fighters and the
+ * round, timer and score. Taken with {@link Match#save(MatchSnapshot)} and applied with
+ * {@link Match#restore(MatchSnapshot)}, both only copy primitives into preallocated arrays.
+ * It can also be written to and read from a buffer, for replay keyframes.
+ */
+public class MatchSnapshot {
+
+    private static final Match.GameState[] GAME_STATES = Match.GameState.values();
+    private static final Match.RoundState[] ROUND_STATES = Match.RoundState.values();
+
+    final FighterStore fighters;
+    Match.GameState gameState;
+    Match.RoundState roundState;
+    float roundStateTime;
+    int currentRound;
+    int roundsWon, roundsLost;
+    float roundTimer;
+    long tick;
+
+    /**
+     * @param fighterCapacity at least the size of the store of the fighters of the match
+     */
+    public MatchSnapshot(int fighterCapacity) {
+        this.fighters = new FighterStore(fighterCapacity, null);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public void write(ByteBuffer buffer) {
+        fighters.write(buffer);
+        buffer.put((byte) (gameState == null ? -1 : gameState.ordinal()));
+        buffer.put((byte) (roundState == null ? -1 : roundState.ordinal()));
+        buffer.putFloat(roundStateTime);
+        buffer.put((byte) currentRound);
+        buffer.put((byte) roundsWon);
+        buffer.put((byte) roundsLost);
+        buffer.putFloat(roundTimer);
+        buffer.putLong(tick);
+    }
+
+    public void read(ByteBuffer buffer) {
+        fighters.read(buffer);
+        byte gameStateOrdinal = buffer.get();
+        gameState = gameStateOrdinal < 0 ? null : GAME_STATES[gameStateOrdinal];
+        byte roundStateOrdinal = buffer.get();
+        roundState = roundStateOrdinal < 0 ? null : ROUND_STATES[roundStateOrdinal];
+        roundStateTime = buffer.getFloat();
+        currentRound = buffer.get();
+        roundsWon = buffer.get();
+        roundsLost = buffer.get();
+        roundTimer = buffer.getFloat();
+        tick = buffer.getLong();
+    }
+}
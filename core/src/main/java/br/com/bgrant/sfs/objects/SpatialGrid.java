@@ -0,0 +1,99 @@
+package br.com.bgrant.sfs.objects;
+
+/**
+ * Uniform grid over the ring that buckets the fighters of a {@link FighterStore} by position. Cells are as large as
+ * the contact distance, so every fighter within contact distance of a point is in the point's cell or in one of the
+ * eight around it, and a query looks at those instead of every fighter in the ring.
+ * Fighters are sorted into the cells with a counting sort over preallocated arrays, so rebuilding it every tick is
+ * linear in the number of fighters and doesn't allocate.
+ */
+public class SpatialGrid {
+
+    public static final float CELL_WIDTH = Match.FIGHTER_CONTACT_DISTANCE_X;
+    public static final float CELL_HEIGHT = Match.FIGHTER_CONTACT_DISTANCE_Y;
+
+    private final int columns, rows;
+    //first entry in fighters of each cell, the entry after the last cell is the number of fighters
+    private final int[] cellStart;
+    //fighter indices sorted by cell
+    private final int[] fighters;
+    private final int[] fighterCell;
+
+    public SpatialGrid(int capacity) {
+        this.columns = (int) Math.ceil((Match.RING_MAX_X - Match.RING_MIN_X) / CELL_WIDTH);
+        this.rows = (int) Math.ceil((Match.RING_MAX_Y - Match.RING_MIN_Y) / CELL_HEIGHT);
+        this.cellStart = new int[columns * rows + 1];
+        this.fighters = new int[capacity];
+        this.fighterCell = new int[capacity];
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Sorts every fighter in the store into its cell, replacing what was there.
+     */
+    public void build(FighterStore store) {
+        int size = store.getSize();
+        int cells = columns * rows;
+        //count the fighters in each cell
+        for (int cell = 0; cell < cells; cell++) {
+            cellStart[cell] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            int cell = getRow(store.positionY[i]) * columns + getColumn(store.positionX[i]);
+            fighterCell[i] = cell;
+            cellStart[cell]++;
+        }
+        //turn the counts into the end of each cell, then walk back so they end up as the start
+        for (int cell = 1; cell < cells; cell++) {
+            cellStart[cell] += cellStart[cell - 1];
+        }
+        cellStart[cells] = size;
+        for (int i = size - 1; i >= 0; i--) {
+            fighters[--cellStart[fighterCell[i]]] = i;
+        }
+    }
+
+    /**
+     * Writes the index of every fighter that may be within contact distance of the position into {@code result},
+     * which must be as large as the grid capacity, and returns how many there are. The fighters still have to be
+     * checked with {@link Match#areWithinContactDistance(float, float, float, float)}.
+     */
+    public int query(float x, float y, int[] result) {
+        return query(x - CELL_WIDTH, y - CELL_HEIGHT, x + CELL_WIDTH, y + CELL_HEIGHT, result);
+    }
+
+    /**
+     * Writes the index of every fighter in the cells the box overlaps into {@code result}, which must be as large
+     * as the grid capacity, and returns how many there are.
+     */
+    public int query(float minX, float minY, float maxX, float maxY, int[] result) {
+        int firstColumn = getColumn(minX);
+        int lastColumn = getColumn(maxX);
+        int count = 0;
+        for (int r = getRow(minY), lastRow = getRow(maxY); r <= lastRow; r++) {
+            //the cells of a row are next to each other, so their fighters are too
+            int end = cellStart[r * columns + lastColumn + 1];
+            for (int n = cellStart[r * columns + firstColumn]; n < end; n++) {
+                result[count++] = fighters[n];
+            }
+        }
+        return count;
+    }
+
+    private int getColumn(float x) {
+        int column = (int) ((x - Match.RING_MIN_X) / CELL_WIDTH);
+        return column < 0 ? 0 : column >= columns ? columns - 1 : column;
+    }
+
+    private int getRow(float y) {
+        int row = (int) ((y - Match.RING_MIN_Y) / CELL_HEIGHT);
+        return row < 0 ? 0 : row >= rows ? rows - 1 : row;
+    }
+}
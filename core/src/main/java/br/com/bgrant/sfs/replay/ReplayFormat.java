@@ -0,0 +1,48 @@
+package br.com.bgrant.sfs.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of a replay file. After the header comes a stream of records in tick order:
+ * <ul>
+ * <li>a command: one byte with the side in the high nibble and the command ordinal in the low one,
+ * then the ticks since the previous record as a varint</li>
+ * <li>a keyframe: {@link #KEYFRAME}, the absolute tick as a varint, the length of the state as a short,
+ * then the {@link br.com.bgrant.sfs.objects.MatchSnapshot} and the input buffered for both fighters</li>
+ * <li>the end of the match: {@link #END}, then the ticks since the previous record as a varint</li>
+ * </ul>
+ * A match of a few minutes takes a few kilobytes.
+ */
+class ReplayFormat {
+
+    static final int MAGIC = 0x53465352; // "SFSR"
+    static final byte VERSION = 1;
+    // magic, version, tick rate, keyframe interval and the length of the records
+    static final int HEADER_SIZE = 4 + 1 + 4 + 4 + 8;
+    static final int DATA_LENGTH_POSITION = 4 + 1 + 4 + 4;
+
+    static final byte KEYFRAME = 0x40;
+    static final byte END = 0x41;
+    // largest record, a keyframe with both input buffers full
+    static final int MAX_RECORD_SIZE = 2048;
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
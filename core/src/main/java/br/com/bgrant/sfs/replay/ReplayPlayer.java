@@ -0,0 +1,202 @@
+package br.com.bgrant.sfs.replay;
+
+import br.com.bgrant.sfs.concurrent.BroadcastRing;
+import br.com.bgrant.sfs.objects.InputBuffer;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.objects.MatchSnapshot;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Plays a replay file back into a {@link Match} by feeding the recorded commands to the fighters at the tick
+ * they were given, at any speed up to {@link #MAX_SPEED}. Seeking restores the last keyframe before the target
+ * tick and simulates from there.
+ */
+public class ReplayPlayer {
+
+    public static final float MIN_SPEED = 0.125f;
+    public static final float MAX_SPEED = 100f;
+    private static final InputBuffer.Command[] COMMANDS = InputBuffer.Command.values();
+
+    private final Match match;
+    private final MappedByteBuffer data;
+    private final int dataEnd;
+    private final float timeStep;
+    private final MatchSnapshot snapshot;
+
+    //tick and position of every keyframe, in order
+    private final LongArray keyframeTicks = new LongArray();
+    private final IntArray keyframePositions = new IntArray();
+    private long endTick;
+
+    private long lastRecordTick;
+    private boolean finished;
+    private boolean paused;
+    private float speed = 1f;
+    private float accumulator;
+
+    public ReplayPlayer(File file, Match match) {
+        this.match = match;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            // the mapping stays valid after the channel is closed
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not open replay file " + file, e);
+        }
+        if (data.getInt() != ReplayFormat.MAGIC || data.get() != ReplayFormat.VERSION) {
+            throw new GdxRuntimeException("Not a replay file: " + file);
+        }
+        this.timeStep = 1f / data.getFloat();
+        data.getInt(); // keyframe interval
+        this.dataEnd = (int) (ReplayFormat.HEADER_SIZE + data.getLong());
+        this.snapshot = new MatchSnapshot(match.getPlayer().getStore().getCapacity());
+        indexKeyframes();
+        if (keyframeTicks.size == 0) {
+            throw new GdxRuntimeException("Replay file has no keyframe: " + file);
+        }
+    }
+
+    // reads every record once to find the keyframes and the end
+    private void indexKeyframes() {
+        data.position(ReplayFormat.HEADER_SIZE);
+        long tick = 0;
+        while (data.position() < dataEnd) {
+            int position = data.position();
+            byte tag = data.get();
+            if (tag == ReplayFormat.KEYFRAME) {
+                tick = ReplayFormat.getVarLong(data);
+                int length = data.getShort();
+                data.position(data.position() + length);
+                keyframeTicks.add(tick);
+                keyframePositions.add(position);
+            } else {
+                tick += ReplayFormat.getVarLong(data);
+                if (tag == ReplayFormat.END) break;
+            }
+        }
+        endTick = tick;
+    }
+
+    public long getTick() {
+        return match.getTick();
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public float getTimeStep() {
+        return timeStep;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(float speed) {
+        this.speed = Math.max(MIN_SPEED, Math.min(MAX_SPEED, speed));
+    }
+
+    /**
+     * Plays the replay for the given real time, scaled by the speed.
+     */
+    public void update(float delta) {
+        if (paused) return;
+        accumulator += delta * speed;
+        while (accumulator >= timeStep && !finished) {
+            step();
+            accumulator -= timeStep;
+        }
+        if (finished) {
+            accumulator = 0f;
+        }
+    }
+
+    /**
+     * Moves the match to the given tick: restores the last keyframe at or before it and simulates the rest.
+     */
+    public void seek(long tick) {
+        tick = Math.max(0, Math.min(tick, endTick));
+        int keyframe = 0;
+        while (keyframe + 1 < keyframeTicks.size && keyframeTicks.get(keyframe + 1) <= tick) {
+            keyframe++;
+        }
+        data.position(keyframePositions.get(keyframe));
+        data.get(); // keyframe tag
+        lastRecordTick = ReplayFormat.getVarLong(data);
+        data.getShort(); // length
+        snapshot.read(data);
+        match.restore(snapshot);
+        match.getPlayerInput().read(data);
+        match.getOpponentInput().read(data);
+        finished = false;
+        accumulator = 0f;
+        //jumping over ticks doesn't publish what happened in them
+        BroadcastRing events = match.getEvents();
+        match.setEvents(null);
+        while (match.getTick() < tick && !finished) {
+            step();
+        }
+        match.setEvents(events);
+    }
+
+    private void step() {
+        long tick = match.getTick();
+        readRecords(tick);
+        if (finished) return;
+        match.update(timeStep);
+    }
+
+    // adds every command recorded for the tick to the input of its fighter
+    private void readRecords(long tick) {
+        while (data.position() < dataEnd) {
+            int position = data.position();
+            byte tag = data.get();
+            if (tag == ReplayFormat.KEYFRAME) {
+                long keyframeTick = ReplayFormat.getVarLong(data);
+                if (keyframeTick > tick) {
+                    data.position(position);
+                    return;
+                }
+                //the match is already in this state, skip it
+                int length = data.getShort();
+                data.position(data.position() + length);
+                lastRecordTick = keyframeTick;
+                continue;
+            }
+            long recordTick = lastRecordTick + ReplayFormat.getVarLong(data);
+            if (recordTick > tick) {
+                data.position(position);
+                return;
+            }
+            lastRecordTick = recordTick;
+            if (tag == ReplayFormat.END) {
+                finished = true;
+                return;
+            }
+            InputBuffer input = (tag >> 4) == 0 ? match.getPlayerInput() : match.getOpponentInput();
+            input.add(COMMANDS[tag & 0xF], recordTick);
+        }
+        finished = true;
+    }
+}
@@ -0,0 +1,128 @@
+package br.com.bgrant.sfs.replay;
+
+import br.com.bgrant.sfs.objects.InputBuffer;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.objects.MatchSnapshot;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Records a match into a memory-mapped replay file: every command given to a fighter and a keyframe of the whole
+ * match state every {@link #KEYFRAME_INTERVAL_TICKS} ticks. Writes are plain memory stores, the operating system
+ * writes the pages to disk in the background, so the render thread never waits for the disk.
+ * The file is mapped in {@link #CHUNK_SIZE} chunks, so nothing is allocated while recording except a new mapping
+ * every chunk. A chunk holds about an hour of keyframes, so a whole match is recorded without a new mapping.
+ */
+public class ReplayRecorder {
+
+    public static final int KEYFRAME_INTERVAL_TICKS = 120;
+    //the mapping only reserves address space, the file is trimmed to what was written when it is closed
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MatchSnapshot snapshot;
+    //the first chunk, which starts with the header, kept to write the data length when closing
+    private MappedByteBuffer header;
+    private MappedByteBuffer chunk;
+    private long chunkPosition;
+    private long lastRecordTick;
+    private boolean keyframeWritten;
+    private boolean closed;
+
+    public ReplayRecorder(File file, Match match, float tickRate) {
+        try {
+            this.file = new RandomAccessFile(file, "rw");
+            this.channel = this.file.getChannel();
+            this.chunk = channel.map(FileChannel.MapMode.READ_WRITE, 0, CHUNK_SIZE);
+            this.header = chunk;
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not create replay file " + file, e);
+        }
+        this.snapshot = new MatchSnapshot(match.getPlayer().getStore().getCapacity());
+        chunk.putInt(ReplayFormat.MAGIC);
+        chunk.put(ReplayFormat.VERSION);
+        chunk.putFloat(tickRate);
+        chunk.putInt(KEYFRAME_INTERVAL_TICKS);
+        chunk.putLong(0);
+        this.lastRecordTick = match.getTick();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Call before every tick of the match, writes a keyframe when one is due.
+     */
+    public void beforeTick(Match match) {
+        long tick = match.getTick();
+        //the first tick always gets one, so a recording can start at any tick
+        if (closed || keyframeWritten && tick % KEYFRAME_INTERVAL_TICKS != 0) return;
+        keyframeWritten = true;
+        reserve(ReplayFormat.MAX_RECORD_SIZE);
+        chunk.put(ReplayFormat.KEYFRAME);
+        ReplayFormat.putVarLong(chunk, tick);
+        int lengthPosition = chunk.position();
+        chunk.putShort((short) 0);
+        match.save(snapshot);
+        snapshot.write(chunk);
+        match.getPlayerInput().write(chunk);
+        match.getOpponentInput().write(chunk);
+        chunk.putShort(lengthPosition, (short) (chunk.position() - lengthPosition - 2));
+        lastRecordTick = tick;
+    }
+
+    /**
+     * Records a command added to the input of a fighter, 0 for the player and 1 for the opponent.
+     */
+    public void recordCommand(long tick, int side, InputBuffer.Command command) {
+        if (closed) return;
+        reserve(ReplayFormat.MAX_RECORD_SIZE);
+        chunk.put((byte) (side << 4 | command.ordinal()));
+        ReplayFormat.putVarLong(chunk, tick - lastRecordTick);
+        lastRecordTick = tick;
+    }
+
+    /**
+     * Ends the recording at the current tick of the match and trims the file to what was written. Like the writes, it
+     * doesn't wait for the pages to reach the disk.
+     */
+    public void close(Match match) {
+        if (closed) return;
+        closed = true;
+        reserve(ReplayFormat.MAX_RECORD_SIZE);
+        chunk.put(ReplayFormat.END);
+        ReplayFormat.putVarLong(chunk, match.getTick() - lastRecordTick);
+        long length = chunkPosition + chunk.position();
+        header.putLong(ReplayFormat.DATA_LENGTH_POSITION, length - ReplayFormat.HEADER_SIZE);
+        header = null;
+        chunk = null;
+        try {
+            channel.truncate(length);
+        } catch (IOException e) {
+            // some systems don't allow truncating a mapped file, the header has the real length
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not close replay file", e);
+        }
+    }
+
+    // maps the next chunk if the record might not fit in this one
+    private void reserve(int bytes) {
+        if (chunk.remaining() >= bytes) return;
+        chunkPosition += chunk.position();
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkPosition, CHUNK_SIZE);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not grow replay file", e);
+        }
+    }
+}
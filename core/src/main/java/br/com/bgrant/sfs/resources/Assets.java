@@ -1,16 +1,18 @@
 package br.com.bgrant.sfs.resources;
 
+import br.com.bgrant.sfs.debug.StartupTracer;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
 import com.badlogic.gdx.assets.AssetManager;
-import com.badlogic.gdx.assets.loaders.BitmapFontLoader;
 import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGeneratorLoader;
 import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.badlogic.gdx.utils.Array;
 
 public class Assets {
     //asset manager
@@ -19,14 +21,8 @@ public class Assets {
     //Game play Assets
     public static final String BACKGROUND_TEXTURE = "textures/Background.png";
     public static final String FRONT_ROPES_TEXTURE = "textures/FrontRopes.png";
-    public static final String IDLE_SPRITE_SHEET = "sprites/IdleSpriteSheet.png";
-    public static final String WALK_SPRITE_SHEET = "sprites/WalkSpriteSheet.png";
-    public static final String PUNCH_SPRITE_SHEET = "sprites/PunchSpriteSheet.png";
-    public static final String KICK_SPRITE_SHEET = "sprites/KickSpriteSheet.png";
-    public static final String HURT_SPRITE_SHEET = "sprites/HurtSpriteSheet.png";
-    public static final String BLOCK_SPRITE_SHEET = "sprites/BlockSpriteSheet.png";
-    public static final String WIN_SPRITE_SHEET = "sprites/WinSpriteSheet.png";
-    public static final String LOSE_SPRITE_SHEET = "sprites/LoseSpriteSheet.png";
+    //every fighter animation frame, packed from the sprites/*SpriteSheet.png files by the packFighterAtlas task
+    public static final String FIGHTER_ATLAS = "textures/Fighter.atlas";
     public static final String GAMEPLAY_BUTTONS_ATLAS = "textures/GameplayButtons.atlas";
     public static final String BLOOD_ATLAS = "textures/Blood.atlas";
 
@@ -35,6 +31,7 @@ public class Assets {
     public static final String SMALL_FONT = "smallFont.ttf";
     public static final String MEDIUM_FONT = "mediumFont.ttf";
     public static final String LARGE_FONT = "largeFont.ttf";
+    public static final String[] FONTS = {SMALL_FONT, MEDIUM_FONT, LARGE_FONT};
 
     // audio assets
     public static final String BLOCK_SOUND = "audio/block.mp3";
@@ -47,55 +44,165 @@ public class Assets {
     // menu assets
     public static final String MENU_ITEMS_ATLAS = "textures/MenuItems.atlas";
 
-    public void load() {
-        //load all assets
-        this.loadGamePlayAssets();
+    /**
+     * Groups of assets that are loaded and unloaded together. Each group is reference counted, so it is only queued
+     * by the first {@link #load(Group)} and only unloaded by the last matching {@link #unload(Group)}.
+     */
+    public enum Group {
+        GAMEPLAY,
+        FONTS,
+        AUDIO,
+        MENU
+    }
+
+    private static final Group[] GROUPS = Group.values();
+    //reference count and file names of every group, indexed by Group ordinal
+    private final int[] groupReferences = new int[GROUPS.length];
+    private final Array<String>[] groupFileNames;
+    //groups queued but not loaded yet, and the names of their startup tracer spans
+    private final boolean[] groupLoading = new boolean[GROUPS.length];
+    private final String[] groupSpanNames = new String[GROUPS.length];
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Assets() {
+        groupFileNames = new Array[GROUPS.length];
+        for (int i = 0; i < groupFileNames.length; i++) {
+            groupFileNames[i] = new Array<>(String.class);
+            groupSpanNames[i] = "Assets." + GROUPS[i].name();
+        }
+        //fonts are generated from the ttf file by FreeType once, then read from the font cache
+        FileHandleResolver resolver = new InternalFileHandleResolver();//this.assetManager.getFileHandleResolver();
+        assetManager.setLoader(BitmapFont.class,".ttf", new CachedFreeTypeFontLoader(resolver)  );
+    }
+
+    /**
+     * Queues the assets of the group, if no one else is using it. They are loaded by calls to {@link #update(int)}.
+     */
+    public void load(Group group) {
+        if (groupReferences[group.ordinal()]++ > 0) return;
+        groupLoading[group.ordinal()] = true;
+        StartupTracer.begin(groupSpanNames[group.ordinal()]);
+        switch (group) {
+            case GAMEPLAY:
+                this.loadGamePlayAssets();
+                break;
+            case FONTS:
+                this.loadFonts();
+                break;
+            case AUDIO:
+                this.loadAudio();
+                break;
+            case MENU:
+                this.loadMenuAssets();
+                break;
+        }
+    }
+
+    /**
+     * Releases one reference to the group and unloads its assets when no one is using it anymore.
+     */
+    public void unload(Group group) {
+        int references = groupReferences[group.ordinal()];
+        if (references == 0) {
+            throw new IllegalStateException("Asset group is not loaded: " + group);
+        }
+        groupReferences[group.ordinal()] = --references;
+        if (references > 0) return;
+        groupLoading[group.ordinal()] = false;
+        Array<String> fileNames = groupFileNames[group.ordinal()];
+        for (int i = 0; i < fileNames.size; i++) {
+            assetManager.unload(fileNames.get(i));
+        }
+        fileNames.clear();
+    }
+
+    /**
+     * Loads queued assets for at most about the given time, so a loading screen can keep rendering.
+     *
+     * @return whether every queued asset has been loaded
+     */
+    public boolean update(int budgetMillis) {
+        boolean loaded = assetManager.update(budgetMillis);
+        for (int i = 0; i < groupLoading.length; i++) {
+            if (groupLoading[i] && isLoaded(GROUPS[i])) {
+                groupLoading[i] = false;
+                StartupTracer.end(groupSpanNames[i]);
+            }
+        }
+        return loaded;
+    }
+
+    public boolean isLoaded(Group group) {
+        if (groupReferences[group.ordinal()] == 0) return false;
+        Array<String> fileNames = groupFileNames[group.ordinal()];
+        for (int i = 0; i < fileNames.size; i++) {
+            if (!assetManager.isLoaded(fileNames.get(i))) return false;
+        }
+        return true;
+    }
+
+    public float getProgress() {
+        return assetManager.getProgress();
+    }
+
+    private <T> void load(Group group, String fileName, Class<T> type, AssetLoaderParameters<T> parameter) {
+        assetManager.load(fileName, type, parameter);
+        groupFileNames[group.ordinal()].add(fileName);
     }
 
     private void loadGamePlayAssets() {
-        this.assetManager.load(BACKGROUND_TEXTURE, Texture.class);
-        this.assetManager.load(FRONT_ROPES_TEXTURE, Texture.class);
-        this.assetManager.load(IDLE_SPRITE_SHEET, Texture.class);
-        this.assetManager.load(WALK_SPRITE_SHEET, Texture.class);
-        this.assetManager.load(PUNCH_SPRITE_SHEET, Texture.class);
-        this.assetManager.load(KICK_SPRITE_SHEET, Texture.class);
-        this.assetManager.load(HURT_SPRITE_SHEET, Texture.class);
-        this.assetManager.load(BLOCK_SPRITE_SHEET, Texture.class);
-        this.assetManager.load(WIN_SPRITE_SHEET, Texture.class);
-        this.assetManager.load(LOSE_SPRITE_SHEET, Texture.class);
+        this.load(Group.GAMEPLAY, BACKGROUND_TEXTURE, Texture.class, null);
+        this.load(Group.GAMEPLAY, FRONT_ROPES_TEXTURE, Texture.class, null);
         //Atlas
-        this.assetManager.load(GAMEPLAY_BUTTONS_ATLAS, TextureAtlas.class);
-        this.assetManager.load(BLOOD_ATLAS, TextureAtlas.class);
-        //load fonts
-        this.loadFonts();
+        this.load(Group.GAMEPLAY, FIGHTER_ATLAS, TextureAtlas.class, null);
+        this.load(Group.GAMEPLAY, GAMEPLAY_BUTTONS_ATLAS, TextureAtlas.class, null);
+        this.load(Group.GAMEPLAY, BLOOD_ATLAS, TextureAtlas.class, null);
     }
 
     private void loadFonts() {
-        FileHandleResolver resolver = new InternalFileHandleResolver();//this.assetManager.getFileHandleResolver();
-        assetManager.setLoader(FreeTypeFontGenerator.class, new FreeTypeFontGeneratorLoader(resolver));
-        assetManager.setLoader(BitmapFont.class,".ttf", new FreetypeFontLoader(resolver)  );
-
-        //Load Small fonts first
-        FreetypeFontLoader.FreeTypeFontLoaderParameter smallFont = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
-        smallFont.fontFileName = ROBOTO_REGULAR;
-        smallFont.fontParameters.size = 32;
-        assetManager.load(SMALL_FONT,BitmapFont.class, smallFont );
-
-        //Load Medium fonts next
-        FreetypeFontLoader.FreeTypeFontLoaderParameter mediumFont = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
-        mediumFont.fontFileName = ROBOTO_REGULAR;
-        mediumFont.fontParameters.size = 106;
-        mediumFont.fontParameters.borderWidth = 4;
-        mediumFont.fontParameters.borderColor = new com.badlogic.gdx.graphics.Color(Color.BLACK);
-        assetManager.load(MEDIUM_FONT,BitmapFont.class, mediumFont);
-
-        //Load Large fonts next
-        FreetypeFontLoader.FreeTypeFontLoaderParameter largeFont = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
-        largeFont.fontFileName = ROBOTO_REGULAR;
-        largeFont.fontParameters.size = 150;
-        largeFont.fontParameters.borderWidth = 6;
-        largeFont.fontParameters.borderColor = new com.badlogic.gdx.graphics.Color(Color.BLACK);
-        assetManager.load(LARGE_FONT,BitmapFont.class, largeFont);
+        //Load Small fonts first, then medium and large
+        for (String font : FONTS) {
+            this.load(Group.FONTS, font, BitmapFont.class, createFontParameter(font));
+        }
+    }
+
+    /**
+     * Returns the FreeType parameters of one of the {@link #FONTS}. Also used to pre-generate the font cache.
+     */
+    public static FreetypeFontLoader.FreeTypeFontLoaderParameter createFontParameter(String font) {
+        FreetypeFontLoader.FreeTypeFontLoaderParameter parameter = new FreetypeFontLoader.FreeTypeFontLoaderParameter();
+        parameter.fontFileName = ROBOTO_REGULAR;
+        switch (font) {
+            case SMALL_FONT:
+                parameter.fontParameters.size = 32;
+                break;
+            case MEDIUM_FONT:
+                parameter.fontParameters.size = 106;
+                parameter.fontParameters.borderWidth = 4;
+                parameter.fontParameters.borderColor = new com.badlogic.gdx.graphics.Color(Color.BLACK);
+                break;
+            case LARGE_FONT:
+                parameter.fontParameters.size = 150;
+                parameter.fontParameters.borderWidth = 6;
+                parameter.fontParameters.borderColor = new com.badlogic.gdx.graphics.Color(Color.BLACK);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown font: " + font);
+        }
+        return parameter;
+    }
+
+    private void loadAudio() {
+        this.load(Group.AUDIO, BLOCK_SOUND, Sound.class, null);
+        this.load(Group.AUDIO, BOO_SOUND, Sound.class, null);
+        this.load(Group.AUDIO, CHEER_SOUND, Sound.class, null);
+        this.load(Group.AUDIO, CLICK_SOUND, Sound.class, null);
+        this.load(Group.AUDIO, HIT_SOUND, Sound.class, null);
+        this.load(Group.AUDIO, MUSIC, Music.class, null);
+    }
+
+    private void loadMenuAssets() {
+        this.load(Group.MENU, MENU_ITEMS_ATLAS, TextureAtlas.class, null);
     }
 
     public void dispose() {
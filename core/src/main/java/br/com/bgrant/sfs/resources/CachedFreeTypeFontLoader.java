@@ -0,0 +1,82 @@
+package br.com.bgrant.sfs.resources;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Loads FreeType fonts through the {@link FontCache}: the font is only rasterized when there is no cache entry
+ * for its file and parameters, otherwise the cached BMFont is read. Takes the same parameters as
+ * {@link FreetypeFontLoader}. Reading the cache files and decoding the pages happen off the rendering thread.
+ */
+public class CachedFreeTypeFontLoader
+    extends AsynchronousAssetLoader<BitmapFont, FreetypeFontLoader.FreeTypeFontLoaderParameter> {
+
+    private static final String TAG = "CachedFreeTypeFontLoader";
+
+    //state of the font being loaded
+    private BitmapFont.BitmapFontData data;
+    private Pixmap[] pages;
+
+    public CachedFreeTypeFontLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file,
+                                                  FreetypeFontLoader.FreeTypeFontLoaderParameter parameter) {
+        return null;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file,
+                          FreetypeFontLoader.FreeTypeFontLoaderParameter parameter) {
+        if (parameter == null) {
+            throw new GdxRuntimeException("FreeTypeFontLoaderParameter must be set: " + fileName);
+        }
+        FileHandle fontFile = resolve(parameter.fontFileName);
+        FreeTypeFontGenerator.FreeTypeFontParameter fontParameters = parameter.fontParameters;
+        String key = FontCache.key(fontFile, fontParameters);
+        FileHandle fnt = FontCache.find(key);
+        if (fnt == null) {
+            Gdx.app.log(TAG, "Generating " + fileName + " into the font cache");
+            fnt = FontCache.generate(fontFile, fontParameters, Gdx.files.local(FontCache.LOCAL_DIRECTORY), key);
+        }
+
+        data = new BitmapFont.BitmapFontData(fnt, fontParameters.flip);
+        pages = new Pixmap[data.imagePaths.length];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new Pixmap(Gdx.files.getFileHandle(data.imagePaths[i], fnt.type()));
+        }
+    }
+
+    @Override
+    public BitmapFont loadSync(AssetManager manager, String fileName, FileHandle file,
+                               FreetypeFontLoader.FreeTypeFontLoaderParameter parameter) {
+        FreeTypeFontGenerator.FreeTypeFontParameter fontParameters = parameter.fontParameters;
+        Array<TextureRegion> regions = new Array<>(pages.length);
+        for (Pixmap page : pages) {
+            Texture texture = new Texture(page, fontParameters.genMipMaps);
+            texture.setFilter(fontParameters.minFilter, fontParameters.magFilter);
+            regions.add(new TextureRegion(texture));
+            page.dispose();
+        }
+        BitmapFont font = new BitmapFont(data, regions, true);
+        font.setOwnsTexture(true);
+        data = null;
+        pages = null;
+        return font;
+    }
+}
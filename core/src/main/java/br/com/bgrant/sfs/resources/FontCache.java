@@ -0,0 +1,178 @@
+package br.com.bgrant.sfs.resources;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Disk cache of fonts generated by FreeType, stored as regular BMFont files (a .fnt file and its PNG pages).
+ * Entries are named after a hash of the font file and of every {@link FreeTypeFontGenerator.FreeTypeFontParameter}
+ * field, so changing either generates a new entry. Pre-generated entries shipped in {@link #INTERNAL_DIRECTORY}
+ * are used first, fonts generated at runtime are written to {@link #LOCAL_DIRECTORY}.
+ */
+public class FontCache {
+
+    public static final String INTERNAL_DIRECTORY = "fonts/cache";
+    public static final String LOCAL_DIRECTORY = "fontcache";
+    //bump when the written files change, so old entries are ignored
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAGE_SIZE = 1024;
+
+    /**
+     * Returns the name of the cache entry for the given font file and parameters.
+     */
+    public static String key(FileHandle fontFile, FreeTypeFontGenerator.FreeTypeFontParameter parameter) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new GdxRuntimeException(e);
+        }
+        digest.update(fontFile.readBytes());
+        StringBuilder description = new StringBuilder();
+        description.append(FORMAT_VERSION)
+            .append('|').append(parameter.size)
+            .append('|').append(parameter.mono)
+            .append('|').append(parameter.hinting)
+            .append('|').append(parameter.color)
+            .append('|').append(parameter.gamma)
+            .append('|').append(parameter.renderCount)
+            .append('|').append(parameter.borderWidth)
+            .append('|').append(parameter.borderColor)
+            .append('|').append(parameter.borderStraight)
+            .append('|').append(parameter.borderGamma)
+            .append('|').append(parameter.shadowOffsetX)
+            .append('|').append(parameter.shadowOffsetY)
+            .append('|').append(parameter.shadowColor)
+            .append('|').append(parameter.spaceX)
+            .append('|').append(parameter.spaceY)
+            .append('|').append(parameter.padTop)
+            .append('|').append(parameter.padLeft)
+            .append('|').append(parameter.padBottom)
+            .append('|').append(parameter.padRight)
+            .append('|').append(parameter.characters)
+            .append('|').append(parameter.kerning)
+            .append('|').append(parameter.flip);
+        byte[] hash = digest.digest(description.toString().getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder key = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the .fnt file of the cache entry, shipped or generated at runtime, or null if there is none.
+     */
+    public static FileHandle find(String key) {
+        FileHandle internal = Gdx.files.internal(INTERNAL_DIRECTORY).child(key + ".fnt");
+        if (internal.exists()) return internal;
+        FileHandle local = Gdx.files.local(LOCAL_DIRECTORY).child(key + ".fnt");
+        if (local.exists()) return local;
+        return null;
+    }
+
+    /**
+     * Rasterizes the font with FreeType and writes it into the directory as the cache entry for the key.
+     *
+     * @return the written .fnt file
+     */
+    public static FileHandle generate(FileHandle fontFile, FreeTypeFontGenerator.FreeTypeFontParameter parameter,
+                                      FileHandle directory, String key) {
+        //pack the glyphs into our own packer, so FreeType doesn't create any texture
+        PixmapPacker packer = new PixmapPacker(PAGE_SIZE, PAGE_SIZE, Pixmap.Format.RGBA8888, 1, false);
+        Color transparentColor = parameter.borderWidth > 0 ? parameter.borderColor : parameter.color;
+        packer.setTransparentColor(transparentColor);
+        packer.getTransparentColor().a = 0;
+        PixmapPacker previousPacker = parameter.packer;
+        parameter.packer = packer;
+
+        FreeTypeFontGenerator generator = new FreeTypeFontGenerator(fontFile);
+        try {
+            BitmapFont.BitmapFontData data = generator.generateData(parameter);
+            int pages = packer.getPages().size;
+            for (int i = 0; i < pages; i++) {
+                PixmapIO.writePNG(directory.child(pageFileName(key, i)), packer.getPages().get(i).getPixmap());
+            }
+            FileHandle fnt = directory.child(key + ".fnt");
+            fnt.writeString(toFnt(data, key, pages, fontFile.nameWithoutExtension(), parameter.size), false, "UTF-8");
+            return fnt;
+        } finally {
+            parameter.packer = previousPacker;
+            generator.dispose();
+            packer.dispose();
+        }
+    }
+
+    private static String pageFileName(String key, int page) {
+        return key + "_" + page + ".png";
+    }
+
+    // writes the font in the BMFont text format, with a metrics line so the loaded font keeps the FreeType metrics
+    private static String toFnt(BitmapFont.BitmapFontData data, String key, int pages, String face, int size) {
+        StringBuilder fnt = new StringBuilder();
+        fnt.append("info face=\"").append(face).append("\" size=").append(size)
+            .append(" bold=0 italic=0 charset=\"\" unicode=0 stretchH=100 smooth=1 aa=1 padding=")
+            .append((int) data.padTop).append(',').append((int) data.padRight).append(',')
+            .append((int) data.padBottom).append(',').append((int) data.padLeft).append(" spacing=0,0\n");
+        fnt.append("common lineHeight=").append((int) data.lineHeight)
+            .append(" base=").append((int) (data.capHeight + (data.flipped ? -data.ascent : data.ascent)))
+            .append(" scaleW=").append(PAGE_SIZE).append(" scaleH=").append(PAGE_SIZE)
+            .append(" pages=").append(pages).append(" packed=0\n");
+        for (int i = 0; i < pages; i++) {
+            fnt.append("page id=").append(i).append(" file=\"").append(pageFileName(key, i)).append("\"\n");
+        }
+
+        int count = 0;
+        StringBuilder chars = new StringBuilder();
+        StringBuilder kernings = new StringBuilder();
+        int kerningCount = 0;
+        for (BitmapFont.Glyph[] page : data.glyphs) {
+            if (page == null) continue;
+            for (BitmapFont.Glyph glyph : page) {
+                if (glyph == null) continue;
+                count++;
+                chars.append("char id=").append(glyph.id)
+                    .append(" x=").append(glyph.srcX).append(" y=").append(glyph.srcY)
+                    .append(" width=").append(glyph.width).append(" height=").append(glyph.height)
+                    .append(" xoffset=").append(glyph.xoffset)
+                    .append(" yoffset=").append(data.flipped ? glyph.yoffset : -(glyph.height + glyph.yoffset))
+                    .append(" xadvance=").append(glyph.xadvance)
+                    .append(" page=").append(glyph.page).append(" chnl=0\n");
+                if (glyph.kerning == null) continue;
+                for (int p = 0; p < glyph.kerning.length; p++) {
+                    byte[] amounts = glyph.kerning[p];
+                    if (amounts == null) continue;
+                    for (int c = 0; c < amounts.length; c++) {
+                        if (amounts[c] == 0) continue;
+                        kerningCount++;
+                        kernings.append("kerning first=").append(glyph.id)
+                            .append(" second=").append(p * amounts.length + c)
+                            .append(" amount=").append(amounts[c]).append('\n');
+                    }
+                }
+            }
+        }
+        fnt.append("chars count=").append(count).append('\n').append(chars);
+        fnt.append("kernings count=").append(kerningCount).append('\n').append(kernings);
+        fnt.append("metrics ascent=").append(data.ascent)
+            .append(" descent=").append(data.descent)
+            .append(" down=").append(data.down)
+            .append(" capHeight=").append(data.capHeight)
+            .append(" lineHeight=").append(data.lineHeight)
+            .append(" spaceXAdvance=").append(data.spaceXadvance)
+            .append(" xHeight=").append(data.xHeight).append('\n');
+        return fnt.toString();
+    }
+}
@@ -14,6 +14,14 @@ public class GlobalVariables {
     public static final float WORLD_SCALE = 0.05f;
 
 
+    //simulation
+    public static final float SIMULATION_TICK_RATE = 60f;
+    public static final int MAX_SIMULATION_STEPS_PER_FRAME = 5;
+
+    //input
+    //how many simulation ticks a block or attack press waits for the fighter to be able to do it
+    public static final int INPUT_BUFFER_TICKS = 8;
+
     //colors and fonts
     public static final Color GOLD = Color.GOLD;
 
@@ -0,0 +1,238 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.SFSGame;
+import br.com.bgrant.sfs.objects.Arena;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.InputBuffer;
+import br.com.bgrant.sfs.resources.Assets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.viewport.ExtendViewport;
+
+/**
+ * Free-for-all {@link Arena} with a crowd of computer fighters, the player is the first fighter.
+ * Shows how many fighters are left and the winner, Enter starts a new fight once it is over.
+ */
+public class ArenaScreen extends InputAdapter implements Screen {
+
+    //same assets as the game screen
+    public static final Assets.Group[] ASSET_GROUPS = GameScreen.ASSET_GROUPS;
+    private static final float TEXT_MARGIN = 1f;
+
+    private final SFSGame game;
+    private final ExtendViewport viewport;
+    private final Arena arena;
+    private final FighterStore store;
+
+    //fixed-timestep simulation
+    private final float simulationTimeStep = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+    private float simulationAccumulator;
+    private float renderAlpha = 1f;
+
+    //fighter indices in drawing order, back to front
+    private final int[] drawOrder;
+
+    private final BitmapFont smallFont, mediumFont;
+    private final StringBuilder text = new StringBuilder();
+    private int shownRemaining = -1;
+
+    private final Texture backgroundTexture;
+    private final Texture frontRopesTexture;
+
+    public ArenaScreen(SFSGame game, Fighter[] fighters) {
+        this.game = game;
+        this.viewport = new ExtendViewport(GlobalVariables.WORLD_WIDTH, GlobalVariables.MIN_WORLD_HEIGHT,
+            GlobalVariables.WORLD_WIDTH, 0);
+        this.arena = new Arena(fighters, System.currentTimeMillis());
+        this.store = fighters[0].getStore();
+        this.drawOrder = new int[fighters.length];
+        for (int n = 0; n < drawOrder.length; n++) {
+            drawOrder[n] = n;
+        }
+
+        this.backgroundTexture = game.assets.assetManager.get(Assets.BACKGROUND_TEXTURE);
+        this.frontRopesTexture = game.assets.assetManager.get(Assets.FRONT_ROPES_TEXTURE);
+        this.smallFont = setUpFont(Assets.SMALL_FONT);
+        this.mediumFont = setUpFont(Assets.MEDIUM_FONT);
+    }
+
+    private BitmapFont setUpFont(String fileName) {
+        BitmapFont font = game.assets.assetManager.get(fileName);
+        font.getData().setScale(GlobalVariables.WORLD_SCALE);
+        font.setColor(Hud.DEFAULT_FONT_COLOR);
+        font.setUseIntegerPositions(false);
+        return font;
+    }
+
+    @Override
+    public void show() {
+        Gdx.input.setInputProcessor(this);
+        arena.start();
+    }
+
+    @Override
+    public void render(float delta) {
+        ScreenUtils.clear(0, 0, 0, 1);
+        simulate(delta);
+
+        game.batch.setProjectionMatrix(viewport.getCamera().combined);
+        game.batch.begin();
+        game.batch.draw(backgroundTexture, 0, 0,
+            backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
+            backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE);
+        renderFighters();
+        game.batch.draw(frontRopesTexture, 0, 0,
+            frontRopesTexture.getWidth() * GlobalVariables.WORLD_SCALE,
+            frontRopesTexture.getHeight() * GlobalVariables.WORLD_SCALE);
+        renderText();
+        game.batch.end();
+    }
+
+    private void renderFighters() {
+        // fighters further up the ring are drawn first, the order barely changes between frames
+        // so an insertion sort is close to linear
+        Fighter[] fighters = arena.getFighters();
+        for (int n = 1; n < drawOrder.length; n++) {
+            int fighter = drawOrder[n];
+            float y = fighters[fighter].getPositionY();
+            int m = n - 1;
+            while (m >= 0 && fighters[drawOrder[m]].getPositionY() < y) {
+                drawOrder[m + 1] = drawOrder[m];
+                m--;
+            }
+            drawOrder[m + 1] = fighter;
+        }
+        for (int fighter : drawOrder) {
+            fighters[fighter].render(game.batch, renderAlpha);
+        }
+    }
+
+    private void renderText() {
+        float top = viewport.getWorldHeight() - TEXT_MARGIN;
+        if (shownRemaining != arena.getRemaining()) {
+            shownRemaining = arena.getRemaining();
+            text.setLength(0);
+            text.append("Fighters left: ").append(shownRemaining);
+        }
+        smallFont.draw(game.batch, text, TEXT_MARGIN, top);
+
+        if (arena.getState() == Arena.State.OVER) {
+            Fighter winner = arena.getWinner();
+            String result = winner == arena.getPlayer() ? "YOU WIN!" : winner.getName() + " WINS!";
+            mediumFont.draw(game.batch, result, 0, viewport.getWorldHeight() * 0.5f,
+                viewport.getWorldWidth(), Align.center, false);
+            smallFont.draw(game.batch, "Press Enter to fight again", 0,
+                viewport.getWorldHeight() * 0.5f - mediumFont.getLineHeight(),
+                viewport.getWorldWidth(), Align.center, false);
+        } else if (arena.getState() == Arena.State.STARTING) {
+            mediumFont.draw(game.batch, "FIGHT!", 0, viewport.getWorldHeight() * 0.5f,
+                viewport.getWorldWidth(), Align.center, false);
+        }
+    }
+
+    private void simulate(float delta) {
+        simulationAccumulator += delta;
+        int steps = 0;
+        while (simulationAccumulator >= simulationTimeStep) {
+            if (steps == GlobalVariables.MAX_SIMULATION_STEPS_PER_FRAME) {
+                //too far behind, drop the remaining time instead of trying to catch up
+                simulationAccumulator %= simulationTimeStep;
+                break;
+            }
+            arena.update(simulationTimeStep);
+            simulationAccumulator -= simulationTimeStep;
+            steps++;
+        }
+        renderAlpha = simulationAccumulator / simulationTimeStep;
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        this.viewport.update(width, height, true);
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        if (arena.getState() == Arena.State.OVER) {
+            if (keycode == Input.Keys.ENTER) {
+                arena.start();
+            }
+            return true;
+        }
+        // the player can't act once knocked out
+        if (arena.getPlayer().hasLost()) return true;
+
+        if (arena.getState() == Arena.State.IN_PROGRESS) {
+            if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
+                queuePlayerCommand(InputBuffer.Command.MOVE_LEFT);
+            } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
+                queuePlayerCommand(InputBuffer.Command.MOVE_RIGHT);
+            }
+            if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
+                queuePlayerCommand(InputBuffer.Command.MOVE_UP);
+            } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
+                queuePlayerCommand(InputBuffer.Command.MOVE_DOWN);
+            }
+        }
+        if (keycode == Input.Keys.B) {
+            queuePlayerCommand(InputBuffer.Command.BLOCK);
+        } else if (keycode == Input.Keys.F) {
+            queuePlayerCommand(InputBuffer.Command.PUNCH);
+        } else if (keycode == Input.Keys.V) {
+            queuePlayerCommand(InputBuffer.Command.KICK);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_LEFT);
+        } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_RIGHT);
+        }
+        if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_UP);
+        } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_DOWN);
+        }
+        if (keycode == Input.Keys.B) {
+            queuePlayerCommand(InputBuffer.Command.STOP_BLOCKING);
+        }
+        return true;
+    }
+
+    private void queuePlayerCommand(InputBuffer.Command command) {
+        arena.getPlayerInput().add(command, arena.getTick());
+    }
+
+    @Override
+    public void pause() {
+
+    }
+
+    @Override
+    public void resume() {
+
+    }
+
+    @Override
+    public void hide() {
+
+    }
+
+    @Override
+    public void dispose() {
+        for (Assets.Group group : ASSET_GROUPS) {
+            game.assets.unload(group);
+        }
+    }
+}
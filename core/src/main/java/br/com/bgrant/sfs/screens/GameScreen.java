@@ -1,88 +1,91 @@
 package br.com.bgrant.sfs.screens;
 
 import br.com.bgrant.sfs.SFSGame;
-import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.ai.OpponentAi;
+import br.com.bgrant.sfs.audio.SoundEffect;
+import br.com.bgrant.sfs.audio.SoundEngine;
+import br.com.bgrant.sfs.debug.PerformanceOverlay;
+import br.com.bgrant.sfs.debug.StartupTracer;
+import br.com.bgrant.sfs.concurrent.BroadcastRing;
+import br.com.bgrant.sfs.effects.BloodEffects;
+import br.com.bgrant.sfs.net.InputBits;
+import br.com.bgrant.sfs.net.RollbackSession;
+import br.com.bgrant.sfs.replay.ReplayPlayer;
+import br.com.bgrant.sfs.replay.ReplayRecorder;
+import br.com.bgrant.sfs.objects.InputBuffer;
+import br.com.bgrant.sfs.objects.Match;
 import br.com.bgrant.sfs.resources.Assets;
 import br.com.bgrant.sfs.resources.GlobalVariables;
+import br.com.bgrant.sfs.telemetry.TelemetrySink;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputProcessor;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Interpolation;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.*;
 
-import java.util.Locale;
+import java.io.File;
 
 public class GameScreen implements Screen, InputProcessor {
 
+    //asset groups that must be loaded before the screen is created, released when it is disposed
+    public static final Assets.Group[] ASSET_GROUPS = {Assets.Group.GAMEPLAY, Assets.Group.FONTS, Assets.Group.AUDIO};
+
     private final SFSGame game;
     //    private final OrthographicCamera camera;
     private final ExtendViewport viewport;
 
-    //Game
-    private enum GameState {
-        RUNNING,
-        PAUSED,
-        GAME_OVER
-    }
-
-    private GameState gameState;
-    //game
-    private GlobalVariables.Difficult difficulty = GlobalVariables.Difficult.EASY;
-
-    //rounds
-    private enum RoundState {
-        STARTING,
-        IN_PROGRESS,
-        ENDING
-    }
-    private RoundState roundState;
-    private float roundStateTime;
-    private static final float START_ROUND_DELAY = 3f;
-    private static final float END_ROUND_DELAY = 3f;
-    private int currentRound;
-    private static final int MAX_ROUNDS = 3;
-    private int roundsWon = 0, roundsLost = 0;
-    private static final float MAX_ROUND_TIME = 99.99F;
-    private float roundTimer = MAX_ROUND_TIME;
-    private static final float CRITICAL_ROUND_TIME = 10f;
-    private static final Color CRITICAL_ROUND_TIME_COLOR = Color.RED;
+    //round and fight logic
+    private final Match match;
+    //versus match against another instance, null in single player
+    private final RollbackSession versusSession;
+    //replay of a recorded match being watched, null when playing
+    private final ReplayPlayer replayPlayer;
+    //records single player matches into the replays folder
+    private ReplayRecorder replayRecorder;
+    //controls the opponent in single player, null otherwise
+    private final OpponentAi opponentAi;
+    //runs the single player match on its own thread, null when it runs on this one
+    private final SimulationThread simulationThread;
+    private static final String REPLAYS_FOLDER = "replays";
+    //records the events of played matches into the telemetry folder, null when watching a replay
+    private TelemetrySink telemetry;
+    private static final String TELEMETRY_FOLDER = "telemetry";
+    private static final float REPLAY_SEEK_SECONDS = 5f;
+
+    //fixed-timestep simulation
+    private final float simulationTimeStep = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+    private float simulationAccumulator;
+    //how far rendering is between the previous and the current simulation step
+    private float renderAlpha = 1f;
 
     //fonts
     private BitmapFont smallFont, mediumFont, largeFont;
-    //Color
-    private static final Color DEFAULT_FONT_COLOR = Color.WHITE;
 
     //HUD Head Up Display
-    private static final Color HEALTH_BAR_COLOR = Color.RED;
-    private static final Color HEALTH_BAR_BACKGROUND_COLOR = Color.YELLOW;
+    private final Hud hud;
+    //debug overlay, toggled with F3, frame metrics dumped to CSV with F4
+    private final PerformanceOverlay performanceOverlay;
+    private static final float PERFORMANCE_OVERLAY_MARGIN = 1f;
+
+    //hits and round changes published by the match, drained once per frame by the effects
+    private static final int EVENT_CAPACITY = 256;
+    private final BroadcastRing events = new BroadcastRing(EVENT_CAPACITY);
+    //sounds and blood, started once per frame from the events
+    private final MatchEffects effects;
+    private boolean firstFrameRendered;
 
     //Background/ring
     private Texture backgroundTexture;
     private Texture frontRopesTexture;
 
-    //boundaries for the fighters
-    private static final float RING_MIN_X = 7F;
-    private static final float RING_MAX_X = 60F;
-    private static final float RING_MIN_Y = 4F;
-    private static final float RING_MAX_Y = 22f;
-    private static final float RING_SLOPE = 3.16f;
-
-    // fighters initial positions
-    private static final float PLAYER_START_POSITION_X = 16f;
-    private static final float OPPONENT_START_POSITION_X = 51f;
-    private static final float FIGHTER_START_POSITION_Y = 15f;
-    private static final float FIGHTER_CONTACT_DISTANCE_X = 7.5f;
-    private static final float FIGHTER_CONTACT_DISTANCE_Y = 1.5f;
-
     public GameScreen(SFSGame game) {
+        StartupTracer.begin("GameScreen()");
         this.game = game;
         //SetUp camera
 //        this.camera = new OrthographicCamera(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
@@ -98,12 +101,37 @@ public class GameScreen implements Screen, InputProcessor {
             GlobalVariables.WORLD_WIDTH, 0);
 //        this.stretchViewport.setCamera(this.camera);
 
+        this.match = new Match(game.player, game.opponent);
+        if (game.versus != null) {
+            this.versusSession = new RollbackSession(match, game.versus.openLink(), game.versus.localSide,
+                RollbackSession.DEFAULT_INPUT_DELAY, events);
+        } else {
+            this.versusSession = null;
+        }
+        this.replayPlayer = game.replayFile != null ? new ReplayPlayer(game.replayFile, match) : null;
+        boolean singlePlayer = versusSession == null && replayPlayer == null;
+        this.simulationThread = singlePlayer && game.threadedSimulation
+            ? new SimulationThread(game.frameData, game.player, game.opponent, simulationTimeStep, events) : null;
+        if (simulationThread == null && versusSession == null) {
+            match.setEvents(events);
+        }
+        this.opponentAi = singlePlayer && simulationThread == null
+            ? new OpponentAi(match, game.frameData, simulationTimeStep) : null;
+
         //create the game area
         this.createGameArea();
 
         //set up fonts
         setUpFonts();
 
+        TextureAtlas gameplayButtons = game.assets.assetManager.get(Assets.GAMEPLAY_BUTTONS_ATLAS);
+        this.hud = new Hud(match, smallFont, mediumFont, Hud.findSolidPixel(gameplayButtons));
+        this.performanceOverlay = new PerformanceOverlay(smallFont);
+        this.effects = new MatchEffects(match, events, game.fighterAnimations,
+            new SoundEngine(game.assets.assetManager),
+            new BloodEffects(game.assets.assetManager.get(Assets.BLOOD_ATLAS)));
+        StartupTracer.end("GameScreen()");
+
 
     }
 
@@ -116,66 +144,23 @@ public class GameScreen implements Screen, InputProcessor {
     private void setUpFonts() {
         this.smallFont = game.assets.assetManager.get(Assets.SMALL_FONT);
         this.smallFont.getData().setScale(GlobalVariables.WORLD_SCALE);
-        this.smallFont.setColor(DEFAULT_FONT_COLOR);
+        this.smallFont.setColor(Hud.DEFAULT_FONT_COLOR);
         this.smallFont.setUseIntegerPositions(false);
 
         this.mediumFont = game.assets.assetManager.get(Assets.MEDIUM_FONT);
         this.mediumFont.getData().setScale(GlobalVariables.WORLD_SCALE);
-        this.mediumFont.setColor(DEFAULT_FONT_COLOR);
+        this.mediumFont.setColor(Hud.DEFAULT_FONT_COLOR);
         this.mediumFont.setUseIntegerPositions(false);
 
         this.largeFont = game.assets.assetManager.get(Assets.LARGE_FONT);
         this.largeFont.getData().setScale(GlobalVariables.WORLD_SCALE);
-        this.largeFont.setColor(DEFAULT_FONT_COLOR);
+        this.largeFont.setColor(Hud.DEFAULT_FONT_COLOR);
         this.largeFont.setUseIntegerPositions(false);
 
     }
 
 
 
-    private void startGame() {
-        gameState = GameState.RUNNING;
-        roundsWon = roundsLost = 0;
-        //start round 1
-        this.currentRound = 1;
-        this.startRound();
-    }
-
-    private void startRound() {
-        // get the fighters ready
-        this.game.player.getReady(PLAYER_START_POSITION_X, FIGHTER_START_POSITION_Y);
-        this.game.opponent.getReady(OPPONENT_START_POSITION_X, FIGHTER_START_POSITION_Y);
-
-        //start the round
-        this.roundState = RoundState.STARTING;
-        roundStateTime = 0f;
-        roundTimer = MAX_ROUND_TIME;
-    }
-
-    private void endRound() {
-        //End the round
-        this.roundState = RoundState.ENDING;
-        this.roundStateTime = 0f;
-    }
-
-    private void windRound() {
-        //the player wins the round and the opponent loses
-        game.player.win();
-        game.opponent.lose();
-        roundsWon++;
-        //End the round
-        endRound();
-    }
-
-    private void loseRound() {
-        //the player loses the round and the opponent wins
-        game.player.lose();
-        game.opponent.win();
-        roundsLost++;
-        //End the round
-        endRound();
-    }
-
     @Override
     public void show() {
         // process user input
@@ -183,270 +168,226 @@ public class GameScreen implements Screen, InputProcessor {
         Gdx.input.setInputProcessor(this);
 //        this.game.opponent.block();
 
-        //start the game
-        this.startGame();
+        if (replayPlayer == null) {
+            //before the match starts, so the first round is recorded
+            FileHandle folder = Gdx.files.local(TELEMETRY_FOLDER);
+            folder.mkdirs();
+            telemetry = new TelemetrySink(folder.child("match-" + System.currentTimeMillis() + ".sfst").file(), events,
+                1f / simulationTimeStep);
+        }
 
+        //start the game
+        this.match.startGame();
+
+        if (replayPlayer != null) {
+            //the first keyframe has the state the recorded match started with
+            replayPlayer.seek(0);
+        } else if (versusSession == null) {
+            FileHandle replays = Gdx.files.local(REPLAYS_FOLDER);
+            replays.mkdirs();
+            File replayFile = replays.child("match-" + System.currentTimeMillis() + ".sfsr").file();
+            if (simulationThread != null) {
+                //the simulation thread records the match it runs
+                simulationThread.start(replayFile);
+                return;
+            }
+            replayRecorder = new ReplayRecorder(replayFile, match, 1f / simulationTimeStep);
+            //the opponent's commands are recorded too, its decisions depend on the timing of the worker thread
+            opponentAi.setCommandListener((tick, command) -> {
+                if (replayRecorder != null) {
+                    replayRecorder.recordCommand(tick, 1, command);
+                }
+            });
+        }
     }
 
     @Override
     public void render(float delta) {
+        renderFrame(delta, game.batch);
+
+        if (!firstFrameRendered) {
+            firstFrameRendered = true;
+            StartupTracer.mark("first game frame");
+            StartupTracer.report();
+            if (StartupTracer.EXIT_AFTER_REPORT) {
+                Gdx.app.exit();
+            }
+        }
+    }
+
+    /**
+     * Runs the work of a frame: the simulation, the effects and the telemetry, then draws the match into the batch.
+     * The benchmarks run it without a GL context and with a batch that only counts, see {@link #clearScreen()} and
+     * {@link #getRenderCalls()}.
+     */
+    void renderFrame(float delta, Batch batch) {
+        performanceOverlay.beginFrame();
         //clear the screen
-        ScreenUtils.clear(0, 0, 0, 1);
+        clearScreen();
 
-        //update the game logic
-        this.update(delta);
+        //update the game logic in fixed steps
+        this.simulate(delta);
+        effects.update(delta);
+        if (telemetry != null) {
+            telemetry.update();
+        }
+        performanceOverlay.endUpdate();
 //        ScreenUtils.clear(1, 0, 0, 1);
-        //Set the sprite batch and the shape renderer viewport's camera
+        //Set the sprite batch viewport's camera
 //        this.game.batch.setProjectionMatrix(camera.combined);
-        this.game.batch.setProjectionMatrix(viewport.getCamera().combined);
-        this.game.shapeRenderer.setProjectionMatrix(viewport.getCamera().combined);
+        batch.setProjectionMatrix(viewport.getCamera().combined);
 
         //begin drawing
-        game.batch.begin();
+        batch.begin();
 
         //draw the background texture
-        game.batch.draw(backgroundTexture, 0, 0,
+        batch.draw(backgroundTexture, 0, 0,
             backgroundTexture.getWidth() * GlobalVariables.WORLD_SCALE,
             backgroundTexture.getHeight() * GlobalVariables.WORLD_SCALE);
 
-        //draw the fighters
-        renderFighters();
+        //draw the fighters with their blood
+        effects.renderFighters(batch, renderAlpha);
 
         //draw the front ropes texture
-        game.batch.draw(frontRopesTexture, 0, 0,
+        batch.draw(frontRopesTexture, 0, 0,
             frontRopesTexture.getWidth() * GlobalVariables.WORLD_SCALE,
             frontRopesTexture.getHeight() * GlobalVariables.WORLD_SCALE);
 
         //draw the HUD
-        renderHUD();
+        hud.render(batch);
 
 
         //if the round is starting, draw the start round text
-        if(roundState == RoundState.STARTING){
-            renderStartRoundText();
+        if(match.getRoundState() == Match.RoundState.STARTING){
+            hud.renderStartRoundText(batch);
         }
 
+        //draw the performance overlay on top of everything
+        performanceOverlay.render(batch, PERFORMANCE_OVERLAY_MARGIN, PERFORMANCE_OVERLAY_MARGIN);
+
         //end drawing
-        game.batch.end();
+        batch.end();
+        performanceOverlay.endFrame(delta, getRenderCalls());
     }
 
-    private void renderFighters() {
-        // use the y coordinates to decide which fighter to render first.
-        if (this.game.player.getPosition().y > this.game.opponent.getPosition().y) {
-            //draw the player
-            this.game.player.render(game.batch);
-            //draw the opponent
-            this.game.opponent.render(game.batch);
-        } else {
-            //draw the opponent
-            this.game.opponent.render(game.batch);
-            //draw the player
-            this.game.player.render(game.batch);
-        }
+    void clearScreen() {
+        ScreenUtils.clear(0, 0, 0, 1);
     }
 
-    private void renderHUD() {
-        float hudMargin = 1f;
-
-        //draw the rounds won to lost ration
-        smallFont.draw(game.batch, String.format("WINS: %d - LOST: %d", roundsWon, roundsLost),
-            hudMargin, viewport.getWorldHeight() - hudMargin);
-        //draw the difficulty settings
-        String text = " DIFFICULTY: ";
-        switch (this.difficulty) {
-            case EASY:
-                text += "EASY";
-                break;
-            case MEDIUM:
-                text += "MEDIUM";
-                break;
-            case HARD:
-                text += "HARD";
-                break;
-        }
-        smallFont.draw(game.batch, text, viewport.getWorldWidth() - hudMargin, viewport.getWorldHeight() - hudMargin, 0, Align.topRight, false);
-        //set up the layout sizes and positioning
-        float healthBarPadding = 0.5f;
-        float healthBarHeight = smallFont.getCapHeight() + healthBarPadding * 2f;
-        float healthBarMaxWidth = 32f;
-        float healthBarBackgroundPadding = 0.2f;
-        float healthBarBackgroundHeight = healthBarHeight + healthBarBackgroundPadding * 2f;
-        float healthBarBackgroundWidth = healthBarMaxWidth + healthBarBackgroundPadding * 2f;
-        float healthBarBackgroundMarginTop = 0.8f;
-        float healthBarBackgroundPositionY = viewport.getWorldHeight() - hudMargin - smallFont.getCapHeight() - healthBarBackgroundMarginTop - healthBarBackgroundHeight;
-        float healthBarPositionY = healthBarBackgroundPositionY + healthBarBackgroundPadding;
-        float fighterNamePositionY = healthBarPositionY + healthBarHeight - healthBarPadding;
-        game.batch.end();
-        game.shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        //draw the fighters health bar background rectangles
-        game.shapeRenderer.setColor(HEALTH_BAR_BACKGROUND_COLOR);
-        game.shapeRenderer.rect(hudMargin, healthBarBackgroundPositionY, healthBarBackgroundWidth, healthBarBackgroundHeight);
-        game.shapeRenderer.rect(viewport.getWorldWidth() - hudMargin - healthBarBackgroundWidth, healthBarBackgroundPositionY, healthBarBackgroundWidth, healthBarBackgroundHeight);
-
-        //draw the fighters health bar rectangles
-        game.shapeRenderer.setColor(HEALTH_BAR_COLOR);
-        float healthBarWidth = healthBarMaxWidth * game.player.getLife() / Fighter.MAX_LIFE - healthBarPadding;
-        game.shapeRenderer.rect(hudMargin + healthBarPadding, healthBarPositionY, healthBarWidth, healthBarHeight);
-        healthBarWidth = healthBarMaxWidth * game.opponent.getLife() / Fighter.MAX_LIFE;
-        game.shapeRenderer.rect(viewport.getWorldWidth() - hudMargin - healthBarBackgroundPadding - healthBarWidth,
-            healthBarPositionY, healthBarWidth, healthBarHeight);
-        game.shapeRenderer.end();
-        game.batch.begin();
-
-        // draw fighters names
-        smallFont.draw(game.batch, game.player.getName()
-            , hudMargin + healthBarBackgroundPadding + healthBarPadding
-            , fighterNamePositionY);
-        smallFont.draw(game.batch, game.opponent.getName()
-            , viewport.getWorldWidth() - hudMargin - healthBarBackgroundPadding - healthBarPadding
-            , fighterNamePositionY, 0, Align.right, false);
-
-        //draw the round timer Integer.toString((int) roundTimer)
-        if(roundTimer < CRITICAL_ROUND_TIME){
-            mediumFont.setColor(CRITICAL_ROUND_TIME_COLOR);
-        }
-        mediumFont.draw(game.batch, String.format(Locale.getDefault(), "%02d", Float.valueOf(roundTimer).intValue()),
-            viewport.getWorldWidth() / 2f - mediumFont.getSpaceXadvance() * 2.3f , viewport.getWorldHeight() - hudMargin);//, 0, Align.center, false);
-        mediumFont.setColor(DEFAULT_FONT_COLOR);
+    //the render calls of the last frame drawn
+    int getRenderCalls() {
+        return game.batch.renderCalls;
     }
 
-    private void renderStartRoundText() {
-        String text = "START ROUND";
-        if (roundStateTime < START_ROUND_DELAY * 0.5f) {
-            text = "ROUND " + currentRound;
-        } else {
-            text = "FIGHT!";
-        }
-        mediumFont.draw(game.batch, text, viewport.getWorldWidth() / 2f, viewport.getWorldHeight() / 2f, 0, Align.center, false);
+    Match getMatch() {
+        return match;
     }
 
-    private void update(float deltaTime) {
-
-
-        if (roundState == RoundState.STARTING && roundStateTime >= START_ROUND_DELAY) {
-            //if the time start round has been reached, start the fight.
-            roundState = RoundState.IN_PROGRESS;
-            roundStateTime = 0f;
-        } else if (roundState == RoundState.ENDING && roundStateTime >= END_ROUND_DELAY) {
-            // if the end round delay has been reached and the player has won or lost more the half of the max numbers of rounds,
-            // end the game, otherwise, start the next round.
-            if (roundsWon > MAX_ROUNDS / 2 || roundsLost > MAX_ROUNDS / 2) {
-                gameState = GameState.GAME_OVER;
-            } else {
-                currentRound++;
-                startRound();
-            }
-        } else {
-            //increment the round state time by the delta time
-            roundStateTime += deltaTime;
+    /**
+     * Runs as many fixed simulation steps as the frame time allows, capped at
+     * {@link GlobalVariables#MAX_SIMULATION_STEPS_PER_FRAME} so a slow frame can't snowball into slower ones.
+     */
+    private void simulate(float delta) {
+        if (simulationThread != null) {
+            //the match runs on its own thread, draw its newest tick
+            simulationThread.pull(match);
+            renderAlpha = simulationThread.getRenderAlpha();
+            return;
         }
-
-
-        this.game.player.update(deltaTime);
-        this.game.opponent.update(deltaTime);
-
-        // make sure they face each other
-        if (game.player.getPosition().x <= game.opponent.getPosition().x) {
-            game.player.faceRight();
-            game.opponent.faceLeft();
-        } else {
-            game.player.faceLeft();
-            game.opponent.faceRight();
+        if (replayPlayer != null) {
+            //replays run at their own speed, so there is nothing to interpolate
+            replayPlayer.update(delta);
+            renderAlpha = 1f;
+            return;
         }
-
-        // keep the fighters within the bounds of the ring.
-        this.keepWithinRingBounds(game.player.getPosition());
-        this.keepWithinRingBounds(game.opponent.getPosition());
-
-
-        //check if the round state is in progress
-        if (roundState == RoundState.IN_PROGRESS) {
-            roundTimer -= deltaTime;
-
-            //check if the round timer has reached zero
-            if (roundTimer <= 0) {
-                // who has the more life to spare, won the game
-                if (game.player.getLife() >= game.opponent.getLife()) {
-                    windRound();
-                } else {
-                    loseRound();
-                }
+        simulationAccumulator += delta;
+        int steps = 0;
+        while (simulationAccumulator >= simulationTimeStep) {
+            if (steps == GlobalVariables.MAX_SIMULATION_STEPS_PER_FRAME) {
+                //too far behind, drop the remaining time instead of trying to catch up
+                simulationAccumulator %= simulationTimeStep;
+                break;
             }
-            fighting();
-        }
-    }
-
-    private void fighting() {
-        //check if fighters are within contact distance.
-        if (areWithinContactDistance(game.player.getPosition(), game.opponent.getPosition())) {
-            if (game.player.isAttackActive()) {
-                //if the player is attacking, then the opponent should get hit.
-                game.opponent.getHit(Fighter.HIT_STRENGTH);
-//                System.out.printf("Opponent's life: %f\n", game.opponent.getLife());
-                // deactivate player's attack
-                game.player.makeContact();
-
-                //check if the opponent has lost
-                if (this.game.opponent.hasLost()) {
-                    // the player wins the round
-                    this.windRound();
+            if (versusSession == null) {
+                opponentAi.update();
+                if (replayRecorder != null) {
+                    replayRecorder.beforeTick(match);
                 }
+                this.match.update(simulationTimeStep);
+                if (replayRecorder != null && match.getGameState() == Match.GameState.GAME_OVER) {
+                    replayRecorder.close(match);
+                    replayRecorder = null;
+                }
+            } else if (!versusSession.advance(simulationTimeStep)) {
+                //waiting for the other instance, don't catch up afterwards
+                simulationAccumulator %= simulationTimeStep;
+                break;
             }
+            simulationAccumulator -= simulationTimeStep;
+            steps++;
         }
-    }
-
-    private void keepWithinRingBounds(Vector2 position) {
-        if (position.y < RING_MIN_Y) {
-            position.y = RING_MIN_Y;
-        } else if (position.y > RING_MAX_Y) {
-            position.y = RING_MAX_Y;
-        }
-        if (position.x < position.y / RING_SLOPE + RING_MIN_X) {
-            position.x = position.y / RING_SLOPE + RING_MIN_X;
-        } else if (position.x > position.y / -RING_SLOPE + RING_MAX_X) {
-            position.x = position.y / -RING_SLOPE + RING_MAX_X;
-        }
-    }
-
-    private boolean areWithinContactDistance(Vector2 position1, Vector2 position2) {
-        //determine if the positions are within the distance in which contact is possible
-        float xDistance = Math.abs(position1.x - position2.x);
-        float yDistance = Math.abs(position1.y - position2.y);
-        return xDistance <= FIGHTER_CONTACT_DISTANCE_X && yDistance <= FIGHTER_CONTACT_DISTANCE_Y;
+        renderAlpha = simulationAccumulator / simulationTimeStep;
     }
 
     @Override
     public void resize(int width, int height) {
         //update the viewport everytime the screen is resized.
         this.viewport.update(width, height, true);
+        //the HUD layout only depends on the world size
+        this.hud.resize(viewport.getWorldWidth(), viewport.getWorldHeight());
     }
 
     @Override
     public boolean keyDown(int keycode) {
+        //check if the player has pressed a debug key
+        if (keycode == Input.Keys.F3) {
+            performanceOverlay.toggle();
+        } else if (keycode == Input.Keys.F4) {
+            performanceOverlay.dumpCsv();
+        } else if (keycode == Input.Keys.F2 && (opponentAi != null || simulationThread != null)) {
+            //cycle the opponent difficulty
+            GlobalVariables.Difficult[] difficulties = GlobalVariables.Difficult.values();
+            match.setDifficulty(difficulties[(match.getDifficulty().ordinal() + 1) % difficulties.length]);
+            if (simulationThread != null) {
+                simulationThread.setDifficulty(match.getDifficulty());
+            }
+            effects.soundEngine.play(SoundEffect.CLICK);
+        }
+
+        if (replayPlayer != null) {
+            controlReplay(keycode);
+            return true;
+        }
+
+        //in a versus match the input is sent to the other instance and applied by the rollback session
+        if (versusSession != null) {
+            versusSession.press(InputBits.fromKeycode(keycode));
+            return true;
+        }
 
-        if (roundState == RoundState.IN_PROGRESS) {
+        if (match.getRoundState() == Match.RoundState.IN_PROGRESS) {
             //check if player has pressed a movement key
 //        System.out.println("keyDown called ..........");
             if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-                game.player.moveLeft();
+                queuePlayerCommand(InputBuffer.Command.MOVE_LEFT);
             } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-                game.player.moveRight();
+                queuePlayerCommand(InputBuffer.Command.MOVE_RIGHT);
             }
 
             if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-                game.player.moveUp();
+                queuePlayerCommand(InputBuffer.Command.MOVE_UP);
             } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-                game.player.moveDown();
+                queuePlayerCommand(InputBuffer.Command.MOVE_DOWN);
             }
         }
 
         //check if player has press the BLOCK or ATTACK key
         if (keycode == Input.Keys.B) {
-            this.game.player.block();
+            queuePlayerCommand(InputBuffer.Command.BLOCK);
         } else if (keycode == Input.Keys.F) {
-            this.game.player.punch();
+            queuePlayerCommand(InputBuffer.Command.PUNCH);
         } else if (keycode == Input.Keys.V) {
-            this.game.player.kick();
+            queuePlayerCommand(InputBuffer.Command.KICK);
         }
 
 
@@ -455,25 +396,60 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public boolean keyUp(int keycode) {
+        if (replayPlayer != null) {
+            return true;
+        }
+        if (versusSession != null) {
+            versusSession.release(InputBits.fromKeycode(keycode));
+            return true;
+        }
         // if a player has released a movement key, stop moving.
         if (keycode == Input.Keys.LEFT || keycode == Input.Keys.A) {
-            game.player.stopMovingLeft();
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_LEFT);
         } else if (keycode == Input.Keys.RIGHT || keycode == Input.Keys.D) {
-            game.player.stopMovingRight();
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_RIGHT);
         }
 
         if (keycode == Input.Keys.UP || keycode == Input.Keys.W) {
-            game.player.stopMovingUp();
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_UP);
         } else if (keycode == Input.Keys.DOWN || keycode == Input.Keys.S) {
-            game.player.stopMovingDown();
+            queuePlayerCommand(InputBuffer.Command.STOP_MOVING_DOWN);
         }
         // if the player has released the block key, stop blocking.
         if (keycode == Input.Keys.B) {
-            game.player.stopBlocking();
+            queuePlayerCommand(InputBuffer.Command.STOP_BLOCKING);
         }
         return true;
     }
 
+    // input is applied by the match at the start of the next simulation tick
+    private void queuePlayerCommand(InputBuffer.Command command) {
+        if (simulationThread != null) {
+            simulationThread.queuePlayerCommand(command);
+            return;
+        }
+        if (match.getPlayerInput().add(command, match.getTick()) && replayRecorder != null) {
+            replayRecorder.recordCommand(match.getTick(), 0, command);
+        }
+    }
+
+    private void controlReplay(int keycode) {
+        long seekTicks = (long) (REPLAY_SEEK_SECONDS / replayPlayer.getTimeStep());
+        if (keycode == Input.Keys.SPACE) {
+            replayPlayer.setPaused(!replayPlayer.isPaused());
+        } else if (keycode == Input.Keys.UP) {
+            replayPlayer.setSpeed(replayPlayer.getSpeed() * 2f);
+        } else if (keycode == Input.Keys.DOWN) {
+            replayPlayer.setSpeed(replayPlayer.getSpeed() / 2f);
+        } else if (keycode == Input.Keys.LEFT) {
+            replayPlayer.seek(replayPlayer.getTick() - seekTicks);
+        } else if (keycode == Input.Keys.RIGHT) {
+            replayPlayer.seek(replayPlayer.getTick() + seekTicks);
+        } else if (keycode == Input.Keys.HOME) {
+            replayPlayer.seek(0);
+        }
+    }
+
     @Override
     public void pause() {
 
@@ -486,12 +462,45 @@ public class GameScreen implements Screen, InputProcessor {
 
     @Override
     public void hide() {
-
+        effects.soundEngine.stopAll();
     }
 
     @Override
     public void dispose() {
-
+        //the voices must be stopped while their sounds still exist, before the audio group is unloaded
+        SoundEngine soundEngine = effects.soundEngine;
+        soundEngine.stopAll();
+        //release the assets used by this screen
+        for (Assets.Group group : ASSET_GROUPS) {
+            game.assets.unload(group);
+        }
+        if (replayRecorder != null) {
+            replayRecorder.close(match);
+            replayRecorder = null;
+        }
+        if (versusSession != null) {
+            Gdx.app.log("GameScreen", "versus: " + versusSession.getRollbacks() + " rollbacks, "
+                + versusSession.getRolledBackTicks() + " ticks simulated again, longest "
+                + versusSession.getMaxRollbackNanos() / 1000 + " us");
+            versusSession.close();
+        }
+        Gdx.app.log("GameScreen", "sounds: " + soundEngine.getPlayed() + " played, " + soundEngine.getStolen()
+            + " stolen, " + soundEngine.getDropped() + " dropped, " + effects.getLostEvents() + " events lost");
+        if (simulationThread != null) {
+            simulationThread.dispose();
+        }
+        if (telemetry != null) {
+            //after the simulation thread has stopped publishing
+            telemetry.close();
+            Gdx.app.log("GameScreen", "telemetry: " + telemetry.getRecords() + " records, "
+                + telemetry.getDroppedRecords() + " dropped");
+            telemetry = null;
+        }
+        if (opponentAi != null) {
+            Gdx.app.log("GameScreen", "opponent ai: " + opponentAi.getDecisions() + " decisions, "
+                + opponentAi.getLateDecisions() + " late");
+            opponentAi.dispose();
+        }
     }
 
     @Override
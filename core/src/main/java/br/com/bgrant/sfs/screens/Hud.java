@@ -0,0 +1,190 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Align;
+
+/**
+ * HUD (Head Up Display) of the game screen: score, difficulty, fighter names, health bars, round timer
+ * and the start round text. It only reads the {@link Match}, so it can be drawn into any {@link Batch}.
+ * Text layouts are rebuilt only when the value they show changes and positions are computed in {@link #resize},
+ * so a frame where nothing changed doesn't allocate. The health bars are drawn through the batch with a solid
+ * pixel, grouped by texture, so the HUD never ends the batch or switches shaders.
+ */
+public class Hud {
+
+    //Color
+    static final Color DEFAULT_FONT_COLOR = Color.WHITE;
+    private static final Color HEALTH_BAR_COLOR = Color.RED;
+    private static final Color HEALTH_BAR_BACKGROUND_COLOR = Color.YELLOW;
+
+    //rounds
+    private static final int CRITICAL_ROUND_TIME = 10;
+    private static final Color CRITICAL_ROUND_TIME_COLOR = Color.RED;
+
+    //a solid white area inside the left bar of the pause button, used to fill the health bars
+    private static final String SOLID_PIXEL_REGION = "PauseButton";
+    private static final int SOLID_PIXEL_X = 55, SOLID_PIXEL_Y = 74;
+
+    //layout sizes
+    private static final float HUD_MARGIN = 1f;
+    private static final float HEALTH_BAR_PADDING = 0.5f;
+    private static final float HEALTH_BAR_MAX_WIDTH = 32f;
+    private static final float HEALTH_BAR_BACKGROUND_PADDING = 0.2f;
+    private static final float HEALTH_BAR_BACKGROUND_WIDTH = HEALTH_BAR_MAX_WIDTH + HEALTH_BAR_BACKGROUND_PADDING * 2f;
+    private static final float HEALTH_BAR_BACKGROUND_MARGIN_TOP = 0.8f;
+
+    private final Match match;
+    private final BitmapFont smallFont, mediumFont;
+    private final TextureRegion solidPixel;
+
+    //text layouts and the values they were built from
+    private final StringBuilder text = new StringBuilder();
+    private final GlyphLayout scoreLayout = new GlyphLayout();
+    private int scoreRoundsWon = -1, scoreRoundsLost = -1;
+    private final GlyphLayout difficultyLayout = new GlyphLayout();
+    private GlobalVariables.Difficult difficulty;
+    private final GlyphLayout playerNameLayout = new GlyphLayout();
+    private String playerName;
+    private final GlyphLayout opponentNameLayout = new GlyphLayout();
+    private String opponentName;
+    private final GlyphLayout timerLayout = new GlyphLayout();
+    private int timerSeconds = -1;
+    private final GlyphLayout startRoundLayout = new GlyphLayout();
+    private int startRoundNumber = -1;
+    private boolean startRoundFight;
+
+    //positions, computed on resize
+    private float worldWidth, worldHeight;
+    private float topTextPositionY;
+    private float healthBarHeight;
+    private float healthBarBackgroundHeight;
+    private float healthBarBackgroundPositionY;
+    private float healthBarPositionY;
+    private float fighterNamePositionY;
+    private float timerPositionX;
+
+    public Hud(Match match, BitmapFont smallFont, BitmapFont mediumFont, TextureRegion solidPixel) {
+        this.match = match;
+        this.smallFont = smallFont;
+        this.mediumFont = mediumFont;
+        this.solidPixel = solidPixel;
+    }
+
+    /**
+     * Returns a one pixel region of solid white from the gameplay buttons atlas, to draw filled rectangles with.
+     */
+    public static TextureRegion findSolidPixel(TextureAtlas gameplayButtons) {
+        return new TextureRegion(gameplayButtons.findRegion(SOLID_PIXEL_REGION), SOLID_PIXEL_X, SOLID_PIXEL_Y, 1, 1);
+    }
+
+    /**
+     * Computes the positions of every HUD element for the given world size.
+     */
+    public void resize(float worldWidth, float worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        topTextPositionY = worldHeight - HUD_MARGIN;
+        healthBarHeight = smallFont.getCapHeight() + HEALTH_BAR_PADDING * 2f;
+        healthBarBackgroundHeight = healthBarHeight + HEALTH_BAR_BACKGROUND_PADDING * 2f;
+        healthBarBackgroundPositionY = worldHeight - HUD_MARGIN - smallFont.getCapHeight() - HEALTH_BAR_BACKGROUND_MARGIN_TOP - healthBarBackgroundHeight;
+        healthBarPositionY = healthBarBackgroundPositionY + HEALTH_BAR_BACKGROUND_PADDING;
+        fighterNamePositionY = healthBarPositionY + healthBarHeight - HEALTH_BAR_PADDING;
+        timerPositionX = worldWidth / 2f - mediumFont.getSpaceXadvance() * 2.3f;
+    }
+
+    /**
+     * Draws the HUD. The batch must be drawing.
+     */
+    public void render(Batch batch) {
+        Fighter player = match.getPlayer();
+        Fighter opponent = match.getOpponent();
+        updateLayouts(player, opponent);
+
+        //draw the fighters health bar background rectangles
+        batch.setColor(HEALTH_BAR_BACKGROUND_COLOR);
+        batch.draw(solidPixel, HUD_MARGIN, healthBarBackgroundPositionY, HEALTH_BAR_BACKGROUND_WIDTH, healthBarBackgroundHeight);
+        batch.draw(solidPixel, worldWidth - HUD_MARGIN - HEALTH_BAR_BACKGROUND_WIDTH, healthBarBackgroundPositionY, HEALTH_BAR_BACKGROUND_WIDTH, healthBarBackgroundHeight);
+
+        //draw the fighters health bar rectangles
+        batch.setColor(HEALTH_BAR_COLOR);
+        float healthBarWidth = HEALTH_BAR_MAX_WIDTH * player.getLife() / Fighter.MAX_LIFE - HEALTH_BAR_PADDING;
+        batch.draw(solidPixel, HUD_MARGIN + HEALTH_BAR_PADDING, healthBarPositionY, healthBarWidth, healthBarHeight);
+        healthBarWidth = HEALTH_BAR_MAX_WIDTH * opponent.getLife() / Fighter.MAX_LIFE;
+        batch.draw(solidPixel, worldWidth - HUD_MARGIN - HEALTH_BAR_BACKGROUND_PADDING - healthBarWidth,
+            healthBarPositionY, healthBarWidth, healthBarHeight);
+        batch.setColor(Color.WHITE);
+
+        //draw the rounds won to lost ration
+        smallFont.draw(batch, scoreLayout, HUD_MARGIN, topTextPositionY);
+        //draw the difficulty settings
+        smallFont.draw(batch, difficultyLayout, worldWidth - HUD_MARGIN, topTextPositionY);
+
+        // draw fighters names
+        smallFont.draw(batch, playerNameLayout,
+            HUD_MARGIN + HEALTH_BAR_BACKGROUND_PADDING + HEALTH_BAR_PADDING, fighterNamePositionY);
+        smallFont.draw(batch, opponentNameLayout,
+            worldWidth - HUD_MARGIN - HEALTH_BAR_BACKGROUND_PADDING - HEALTH_BAR_PADDING, fighterNamePositionY);
+
+        //draw the round timer
+        mediumFont.draw(batch, timerLayout, timerPositionX, topTextPositionY);
+    }
+
+    private void updateLayouts(Fighter player, Fighter opponent) {
+        if (match.getRoundsWon() != scoreRoundsWon || match.getRoundsLost() != scoreRoundsLost) {
+            scoreRoundsWon = match.getRoundsWon();
+            scoreRoundsLost = match.getRoundsLost();
+            text.setLength(0);
+            text.append("WINS: ").append(scoreRoundsWon).append(" - LOST: ").append(scoreRoundsLost);
+            scoreLayout.setText(smallFont, text);
+        }
+        if (match.getDifficulty() != difficulty) {
+            difficulty = match.getDifficulty();
+            text.setLength(0);
+            text.append(" DIFFICULTY: ").append(difficulty.name());
+            difficultyLayout.setText(smallFont, text, DEFAULT_FONT_COLOR, 0, Align.right, false);
+        }
+        if (player.getName() != playerName) {
+            playerName = player.getName();
+            playerNameLayout.setText(smallFont, playerName);
+        }
+        if (opponent.getName() != opponentName) {
+            opponentName = opponent.getName();
+            opponentNameLayout.setText(smallFont, opponentName, DEFAULT_FONT_COLOR, 0, Align.right, false);
+        }
+        int seconds = (int) match.getRoundTimer();
+        if (seconds != timerSeconds) {
+            timerSeconds = seconds;
+            text.setLength(0);
+            if (seconds < 10) {
+                text.append('0');
+            }
+            text.append(seconds);
+            timerLayout.setText(mediumFont, text,
+                seconds < CRITICAL_ROUND_TIME ? CRITICAL_ROUND_TIME_COLOR : DEFAULT_FONT_COLOR, 0, Align.left, false);
+        }
+    }
+
+    public void renderStartRoundText(Batch batch) {
+        boolean fight = match.getRoundStateTime() >= Match.START_ROUND_DELAY * 0.5f;
+        if (fight != startRoundFight || match.getCurrentRound() != startRoundNumber) {
+            startRoundFight = fight;
+            startRoundNumber = match.getCurrentRound();
+            text.setLength(0);
+            if (fight) {
+                text.append("FIGHT!");
+            } else {
+                text.append("ROUND ").append(startRoundNumber);
+            }
+            startRoundLayout.setText(mediumFont, text, DEFAULT_FONT_COLOR, 0, Align.center, false);
+        }
+        mediumFont.draw(batch, startRoundLayout, worldWidth / 2f, worldHeight / 2f);
+    }
+}
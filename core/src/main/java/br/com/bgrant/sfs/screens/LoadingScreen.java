@@ -0,0 +1,110 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.SFSGame;
+import br.com.bgrant.sfs.resources.Assets;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.Screen;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.viewport.FitViewport;
+
+/**
+ * Loads asset groups a few milliseconds per frame while drawing a progress bar, so the window keeps responding.
+ * It doesn't use any loaded asset, only a one pixel texture it creates itself.
+ */
+public class LoadingScreen implements Screen {
+
+    //time spent loading in each frame
+    private static final int LOAD_BUDGET_MILLIS = 10;
+
+    //progress bar
+    private static final float PROGRESS_BAR_WIDTH = GlobalVariables.WORLD_WIDTH * 0.6f;
+    private static final float PROGRESS_BAR_HEIGHT = 2f;
+    private static final Color PROGRESS_BAR_BACKGROUND_COLOR = Color.DARK_GRAY;
+    private static final Color PROGRESS_BAR_COLOR = GlobalVariables.GOLD;
+
+    private final SFSGame game;
+    private final Assets.Group[] groups;
+    private final Runnable onLoaded;
+    private final FitViewport viewport;
+    private final Texture pixel;
+
+    /**
+     * @param onLoaded called once every group has been loaded
+     */
+    public LoadingScreen(SFSGame game, Runnable onLoaded, Assets.Group... groups) {
+        this.game = game;
+        this.onLoaded = onLoaded;
+        this.groups = groups;
+        this.viewport = new FitViewport(GlobalVariables.WORLD_WIDTH, GlobalVariables.WORLD_HEIGHT);
+
+        Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fill();
+        this.pixel = new Texture(pixmap);
+        pixmap.dispose();
+    }
+
+    @Override
+    public void show() {
+        //queue the groups, they are only loaded once even if another screen already uses them
+        for (Assets.Group group : groups) {
+            game.assets.load(group);
+        }
+    }
+
+    @Override
+    public void render(float delta) {
+        if (game.assets.update(LOAD_BUDGET_MILLIS) && isLoaded()) {
+            onLoaded.run();
+            return;
+        }
+
+        ScreenUtils.clear(0, 0, 0, 1);
+        viewport.apply();
+        game.batch.setProjectionMatrix(viewport.getCamera().combined);
+        game.batch.begin();
+        float x = (GlobalVariables.WORLD_WIDTH - PROGRESS_BAR_WIDTH) / 2f;
+        float y = (GlobalVariables.WORLD_HEIGHT - PROGRESS_BAR_HEIGHT) / 2f;
+        game.batch.setColor(PROGRESS_BAR_BACKGROUND_COLOR);
+        game.batch.draw(pixel, x, y, PROGRESS_BAR_WIDTH, PROGRESS_BAR_HEIGHT);
+        game.batch.setColor(PROGRESS_BAR_COLOR);
+        game.batch.draw(pixel, x, y, PROGRESS_BAR_WIDTH * game.assets.getProgress(), PROGRESS_BAR_HEIGHT);
+        game.batch.setColor(Color.WHITE);
+        game.batch.end();
+    }
+
+    private boolean isLoaded() {
+        for (Assets.Group group : groups) {
+            if (!game.assets.isLoaded(group)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height, true);
+    }
+
+    @Override
+    public void pause() {
+
+    }
+
+    @Override
+    public void resume() {
+
+    }
+
+    @Override
+    public void hide() {
+
+    }
+
+    @Override
+    public void dispose() {
+        pixel.dispose();
+    }
+}
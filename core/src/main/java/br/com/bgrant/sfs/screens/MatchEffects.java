@@ -0,0 +1,108 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.audio.SoundEffect;
+import br.com.bgrant.sfs.audio.SoundEngine;
+import br.com.bgrant.sfs.concurrent.BroadcastRing;
+import br.com.bgrant.sfs.effects.BloodEffects;
+import br.com.bgrant.sfs.objects.AnimationSet;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.GameEvent;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Sounds and blood of a match, started from the {@link GameEvent}s the match published since the last frame. The
+ * match may run on another thread, so the events are drained once per frame instead of handled as they happen.
+ */
+class MatchEffects implements BroadcastRing.Handler {
+
+    //where on the fighter frame hits land, from the bottom
+    private static final float HIT_HEIGHT = 0.65f;
+    private static final float POOL_SPREAD = 2f;
+
+    private final Match match;
+    private final BroadcastRing.Subscriber events;
+    private final AnimationSet animations;
+    final SoundEngine soundEngine;
+    final BloodEffects bloodEffects;
+
+    /**
+     * @param match the match drawn, which has the fighters the events refer to
+     */
+    MatchEffects(Match match, BroadcastRing events, AnimationSet animations, SoundEngine soundEngine,
+                 BloodEffects bloodEffects) {
+        this.match = match;
+        this.events = events.subscribe();
+        this.animations = animations;
+        this.soundEngine = soundEngine;
+        this.bloodEffects = bloodEffects;
+    }
+
+    /**
+     * Starts the effects of what happened in the ticks simulated this frame. Call once per frame.
+     */
+    void update(float delta) {
+        events.drain(this);
+        soundEngine.update(delta);
+        bloodEffects.update(delta);
+    }
+
+    long getLostEvents() {
+        return events.getLost();
+    }
+
+    @Override
+    public void onValue(long event) {
+        switch (GameEvent.type(event)) {
+            case HIT:
+                onHit(getFighter(GameEvent.second(event)), GameEvent.flag(event));
+                break;
+            case ROUND_END:
+                //the crowd is on the player's side
+                soundEngine.play(GameEvent.first(event) == match.getPlayer().getIndex()
+                    ? SoundEffect.CHEER : SoundEffect.BOO);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Fighter getFighter(int index) {
+        return index == match.getPlayer().getIndex() ? match.getPlayer() : match.getOpponent();
+    }
+
+    private void onHit(Fighter victim, boolean blocked) {
+        float centerX = victim.getPositionX() + animations.getFrameWidth() * 0.5f;
+        //heard from the side of the ring the fighter is on
+        float pan = MathUtils.clamp(centerX / GlobalVariables.WORLD_WIDTH * 2f - 1f, -1f, 1f);
+        if (blocked) {
+            soundEngine.play(SoundEffect.BLOCK, 1f, pan);
+            return;
+        }
+        soundEngine.play(SoundEffect.HIT, 1f, pan);
+        //the blood sprays away from the attacker, who the fighter is facing
+        bloodEffects.spawnSplatter(centerX, victim.getPositionY() + animations.getFrameHeight() * HIT_HEIGHT,
+            -victim.getStore().facing[victim.getIndex()]);
+        bloodEffects.spawnPool(centerX + MathUtils.random(-POOL_SPREAD, POOL_SPREAD), victim.getPositionY());
+    }
+
+    /**
+     * Draws the fighters over the blood pools and under the blood splatters, the fighter nearer the camera last.
+     */
+    void renderFighters(Batch batch, float alpha) {
+        bloodEffects.renderPools(batch);
+        Fighter player = match.getPlayer();
+        Fighter opponent = match.getOpponent();
+        // use the y coordinates to decide which fighter to render first.
+        if (player.getPositionY() > opponent.getPositionY()) {
+            player.render(batch, alpha);
+            opponent.render(batch, alpha);
+        } else {
+            opponent.render(batch, alpha);
+            player.render(batch, alpha);
+        }
+        bloodEffects.renderSplatters(batch);
+    }
+}
@@ -0,0 +1,194 @@
+package br.com.bgrant.sfs.screens;
+
+import br.com.bgrant.sfs.ai.OpponentAi;
+import br.com.bgrant.sfs.concurrent.BroadcastRing;
+import br.com.bgrant.sfs.concurrent.ByteRingQueue;
+import br.com.bgrant.sfs.concurrent.TripleBuffer;
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.FrameData;
+import br.com.bgrant.sfs.objects.InputBuffer;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.objects.MatchSnapshot;
+import br.com.bgrant.sfs.replay.ReplayRecorder;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.MathUtils;
+
+import java.io.File;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a single player match on its own thread at a fixed tick rate, together with the opponent AI and the replay
+ * recorder, and publishes a snapshot of the match after every tick through a {@link TripleBuffer}. The render thread
+ * restores the newest snapshot into its own match and draws that one, so the two threads never share a fighter and
+ * the simulation doesn't add to the frame time. Player commands go the other way through a {@link ByteRingQueue}.
+ */
+class SimulationThread implements Runnable {
+
+    static final class Frame {
+        final MatchSnapshot snapshot = new MatchSnapshot(2);
+        //when the tick finished, from System.nanoTime
+        long nanos;
+    }
+
+    private static final InputBuffer.Command[] COMMANDS = InputBuffer.Command.values();
+    private static final int COMMAND_QUEUE_CAPACITY = 64;
+    private static final long JOIN_MILLIS = 1000;
+
+    //only used by the simulation thread once it has started
+    private final Match match;
+    private final OpponentAi opponentAi;
+    private ReplayRecorder replayRecorder;
+    private final float timeStep;
+    private final long stepNanos;
+
+    private final TripleBuffer<Frame> frames = new TripleBuffer<>(Frame::new);
+    private final ByteRingQueue commands = new ByteRingQueue(COMMAND_QUEUE_CAPACITY);
+    private volatile GlobalVariables.Difficult difficulty;
+    private volatile boolean running = true;
+    private Thread thread;
+
+    //statistics, written by the simulation thread
+    private volatile long ticks, droppedTicks, maxTickNanos;
+
+    /**
+     * @param player the fighter the render thread draws as the player, only its name and color are used
+     * @param opponent the fighter the render thread draws as the opponent, only its name and color are used
+     * @param events where the match publishes its events, drained by the render thread
+     */
+    SimulationThread(FrameData frameData, Fighter player, Fighter opponent, float timeStep, BroadcastRing events) {
+        //added in the same order as the render thread's fighters, so the snapshots line up with its store
+        FighterStore store = new FighterStore(2, frameData);
+        this.match = new Match(new Fighter(store, player.getName(), player.getColor()),
+            new Fighter(store, opponent.getName(), opponent.getColor()));
+        match.setEvents(events);
+        this.opponentAi = new OpponentAi(match, frameData, timeStep);
+        this.timeStep = timeStep;
+        this.stepNanos = (long) (timeStep * 1000000000L);
+        this.difficulty = match.getDifficulty();
+    }
+
+    /**
+     * Starts the match and the thread.
+     *
+     * @param replayFile where to record the match, or null
+     */
+    void start(File replayFile) {
+        match.startGame();
+        if (replayFile != null) {
+            replayRecorder = new ReplayRecorder(replayFile, match, 1f / timeStep);
+            opponentAi.setCommandListener((tick, command) -> {
+                if (replayRecorder != null) {
+                    replayRecorder.recordCommand(tick, 1, command);
+                }
+            });
+        }
+        //the render thread has a frame to show before the first tick
+        publish();
+        thread = new Thread(this, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Render thread side: restores the newest snapshot into the match, if there is one it hasn't seen.
+     */
+    void pull(Match renderMatch) {
+        if (frames.update()) {
+            renderMatch.restore(frames.getFront().snapshot);
+        }
+    }
+
+    /**
+     * Render thread side: how far the render thread is between the last two ticks of the front snapshot.
+     */
+    float getRenderAlpha() {
+        return MathUtils.clamp((System.nanoTime() - frames.getFront().nanos) / (float) stepNanos, 0f, 1f);
+    }
+
+    /**
+     * Render thread side: the command is added to the player's input buffer before the next tick.
+     */
+    void queuePlayerCommand(InputBuffer.Command command) {
+        commands.offer((byte) command.ordinal());
+    }
+
+    void setDifficulty(GlobalVariables.Difficult difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(this, nextTick - now);
+                continue;
+            }
+            if (now - nextTick > GlobalVariables.MAX_SIMULATION_STEPS_PER_FRAME * stepNanos) {
+                //too far behind, drop the missed ticks instead of trying to catch up
+                droppedTicks += (now - nextTick) / stepNanos;
+                nextTick = now;
+            }
+            tick();
+            long tickNanos = System.nanoTime() - now;
+            if (tickNanos > maxTickNanos) {
+                maxTickNanos = tickNanos;
+            }
+            nextTick += stepNanos;
+        }
+        if (replayRecorder != null) {
+            replayRecorder.close(match);
+            replayRecorder = null;
+        }
+        opponentAi.dispose();
+    }
+
+    private void tick() {
+        int command;
+        while ((command = commands.poll()) >= 0) {
+            InputBuffer.Command playerCommand = COMMANDS[command];
+            if (match.getPlayerInput().add(playerCommand, match.getTick()) && replayRecorder != null) {
+                replayRecorder.recordCommand(match.getTick(), 0, playerCommand);
+            }
+        }
+        match.setDifficulty(difficulty);
+        opponentAi.update();
+        if (replayRecorder != null) {
+            replayRecorder.beforeTick(match);
+        }
+        match.update(timeStep);
+        if (replayRecorder != null && match.getGameState() == Match.GameState.GAME_OVER) {
+            replayRecorder.close(match);
+            replayRecorder = null;
+        }
+        publish();
+        ticks++;
+    }
+
+    private void publish() {
+        Frame frame = frames.getBack();
+        match.save(frame.snapshot);
+        frame.nanos = System.nanoTime();
+        frames.publish();
+    }
+
+    /**
+     * Stops the thread and waits for it to close the recording.
+     */
+    void dispose() {
+        running = false;
+        if (thread == null) return;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(JOIN_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Gdx.app.log("GameScreen", "simulation thread: " + ticks + " ticks, " + droppedTicks + " dropped, longest "
+            + maxTickNanos / 1000 + " us, opponent ai: " + opponentAi.getDecisions() + " decisions, "
+            + opponentAi.getLateDecisions() + " late");
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.bgrant.sfs.telemetry;
+
+/**
+ * Layout of a telemetry file. After the header come fixed-size records, one per
+ * {@link br.com.bgrant.sfs.objects.GameEvent}: the tick of the match the event happened on as a long, then the
+ * event type ordinal, its first and second bytes and its flag as a byte each, then its value as a float. Everything is
+ * big-endian.
+ */
+public final class TelemetryFormat {
+
+    public static final int MAGIC = 0x53465354; // "SFST"
+    public static final byte VERSION = 1;
+    // magic, version, tick rate and the time the match started in epoch milliseconds
+    public static final int HEADER_SIZE = 4 + 1 + 4 + 8;
+    public static final int RECORD_SIZE = 8 + 4 + 4;
+
+    private TelemetryFormat() {
+    }
+}
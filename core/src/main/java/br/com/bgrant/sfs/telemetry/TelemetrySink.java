@@ -0,0 +1,185 @@
+package br.com.bgrant.sfs.telemetry;
+
+import br.com.bgrant.sfs.concurrent.BroadcastRing;
+import br.com.bgrant.sfs.concurrent.ByteRingQueue;
+import br.com.bgrant.sfs.objects.GameEvent;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records the {@link GameEvent}s of a match into a telemetry file, see {@link TelemetryFormat}. The game thread
+ * appends fixed-size records to one of {@link #BUFFER_COUNT} preallocated buffers and hands each full buffer to a
+ * writer thread, which writes every buffer it has waiting in one call and hands them back. Nothing is allocated and
+ * the game thread never waits for the disk: when every buffer is waiting to be written, new records are dropped and
+ * counted.
+ */
+public class TelemetrySink implements BroadcastRing.Handler {
+
+    private static final int BUFFER_SIZE = 256 * TelemetryFormat.RECORD_SIZE;
+    //a power of two, the buffers are passed around by index in ByteRingQueues
+    private static final int BUFFER_COUNT = 8;
+
+    private final BroadcastRing.Subscriber events;
+    //the tick the events happened on, from the last GameEvent.Type.TICK
+    private long tick;
+    private final ByteBuffer[] buffers = new ByteBuffer[BUFFER_COUNT];
+    //buffers the game thread can fill, handed back by the writer
+    private final ByteRingQueue freeBuffers = new ByteRingQueue(BUFFER_COUNT);
+    //buffers waiting to be written
+    private final ByteRingQueue fullBuffers = new ByteRingQueue(BUFFER_COUNT);
+    //the buffer being filled, null if there was none free
+    private ByteBuffer current;
+    private int currentIndex;
+    private long records, droppedRecords;
+    private boolean closed;
+
+    private final File file;
+    private final FileOutputStream output;
+    private final float tickRate;
+    private final long startMillis;
+    private final Thread writer;
+    //set when the game thread has handed over its last buffer
+    private volatile boolean finished;
+
+    /**
+     * @param events subscribed to now, so the records start with the next event
+     */
+    public TelemetrySink(File file, BroadcastRing events, float tickRate) {
+        try {
+            this.output = new FileOutputStream(file);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Could not create telemetry file " + file, e);
+        }
+        this.file = file;
+        this.events = events.subscribe();
+        this.tickRate = tickRate;
+        this.startMillis = System.currentTimeMillis();
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            freeBuffers.offer((byte) i);
+        }
+        //not a daemon, so the last records are written even if the game exits right after the match
+        writer = new Thread(this::write, "Telemetry");
+        writer.start();
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    /**
+     * Records the events published since the last call. Call once per frame from the game thread.
+     */
+    public void update() {
+        if (closed) return;
+        events.drain(this);
+    }
+
+    @Override
+    public void onValue(long event) {
+        if (GameEvent.type(event) == GameEvent.Type.TICK) {
+            tick = GameEvent.tick(event);
+            return;
+        }
+        if (current == null) {
+            int index = freeBuffers.poll();
+            if (index < 0) {
+                //the disk is behind and every buffer is waiting for it
+                droppedRecords++;
+                return;
+            }
+            currentIndex = index;
+            current = buffers[index];
+        }
+        current.putLong(tick);
+        current.put((byte) GameEvent.type(event).ordinal());
+        current.put((byte) GameEvent.first(event));
+        current.put((byte) GameEvent.second(event));
+        current.put((byte) (GameEvent.flag(event) ? 1 : 0));
+        current.putFloat(GameEvent.value(event));
+        records++;
+        if (!current.hasRemaining()) {
+            handOver();
+        }
+    }
+
+    private void handOver() {
+        current.flip();
+        fullBuffers.offer((byte) currentIndex);
+        current = null;
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Records what is left and lets the writer thread finish the file in the background.
+     */
+    public void close() {
+        if (closed) return;
+        events.drain(this);
+        closed = true;
+        if (current != null && current.position() > 0) {
+            handOver();
+        }
+        finished = true;
+        LockSupport.unpark(writer);
+    }
+
+    // the writer thread
+    private void write() {
+        ByteBuffer[] batch = new ByteBuffer[BUFFER_COUNT];
+        int[] batchIndices = new int[BUFFER_COUNT];
+        try (FileChannel channel = output.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(TelemetryFormat.HEADER_SIZE);
+            header.putInt(TelemetryFormat.MAGIC);
+            header.put(TelemetryFormat.VERSION);
+            header.putFloat(tickRate);
+            header.putLong(startMillis);
+            header.flip();
+            writeFully(channel, header);
+            while (true) {
+                //read before polling, so no buffer handed over before finishing is missed
+                boolean last = finished;
+                int count = 0;
+                int index;
+                while ((index = fullBuffers.poll()) >= 0) {
+                    batchIndices[count] = index;
+                    batch[count++] = buffers[index];
+                }
+                if (count > 0) {
+                    //one write for every buffer waiting
+                    while (batch[count - 1].hasRemaining()) {
+                        channel.write(batch, 0, count);
+                    }
+                    for (int i = 0; i < count; i++) {
+                        batch[i].clear();
+                        freeBuffers.offer((byte) batchIndices[i]);
+                    }
+                } else if (last) {
+                    break;
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+        } catch (IOException e) {
+            //the buffers aren't handed back, so the game thread drops the rest
+            Gdx.app.error("TelemetrySink", "Could not write telemetry file " + file, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package br.com.bgrant.sfs.headless;
+
+import br.com.bgrant.sfs.resources.Assets;
+import br.com.bgrant.sfs.resources.FontCache;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.freetype.FreetypeFontLoader;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import java.io.File;
+
+/**
+ * Pre-generates the font cache of every game font into the assets, so shipped builds never rasterize fonts at startup.
+ * Arguments: the assets folder and the folder to write the cache into, relative to it by default.
+ */
+public class FontCacheGenerator {
+
+    public static void main(String[] args) {
+        File assetsFolder = new File(args.length > 0 ? args[0] : ".");
+        File outputFolder = args.length > 1 ? new File(args[1]) : new File(assetsFolder, FontCache.INTERNAL_DIRECTORY);
+        // Pixmap and FreeType need their natives, there is no application to load them
+        GdxNativesLoader.load();
+
+        FileHandle output = new FileHandle(outputFolder);
+        // stale entries would be shipped and never used
+        output.deleteDirectory();
+        output.mkdirs();
+        for (String font : Assets.FONTS) {
+            FreetypeFontLoader.FreeTypeFontLoaderParameter parameter = Assets.createFontParameter(font);
+            FileHandle fontFile = new FileHandle(new File(assetsFolder, parameter.fontFileName));
+            String key = FontCache.key(fontFile, parameter.fontParameters);
+            FontCache.generate(fontFile, parameter.fontParameters, output, key);
+            System.out.printf("%s -> %s/%s.fnt%n", font, output.path(), key);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.bgrant.sfs.headless;
+
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FrameData;
+import br.com.bgrant.sfs.objects.Match;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simulates complete matches without a window or GL context, spread across all cores,
+ * and prints win rates, average round length and throughput. Used to tune the fight balance.
+ * Arguments (all optional): number of matches, random seed, number of threads.
+ */
+public class MatchRunner {
+
+    public static void main(String[] args) {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        // the working directory is the assets folder
+        FrameData frameData = FrameData.load(new FileHandle(FrameData.FILE));
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        // warm up the JIT so the reported throughput reflects the steady state
+        pool.invoke(new SimulateMatchesTask(frameData, seed, 0, Math.min(matches, 1000)));
+
+        long start = System.nanoTime();
+        MatchStats stats = pool.invoke(new SimulateMatchesTask(frameData, seed, 0, matches));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+
+        System.out.printf("punch damage: %.2f (blocked %.2f), kick damage: %.2f (blocked %.2f), MAX_ROUNDS: %d%n",
+            frameData.getDamage(Fighter.State.PUNCH), frameData.getBlockDamage(Fighter.State.PUNCH),
+            frameData.getDamage(Fighter.State.KICK), frameData.getBlockDamage(Fighter.State.KICK), Match.MAX_ROUNDS);
+        System.out.printf("matches: %d on %d threads in %.3f s (%.0f matches/sec, %.0f ticks/sec)%n",
+            stats.matches, threads, seconds, stats.matches / seconds, stats.ticks / seconds);
+        System.out.printf("player wins: %d (%.1f%%), opponent wins: %d (%.1f%%)%n",
+            stats.playerWins, stats.getPlayerWinRate() * 100, stats.opponentWins, (1 - stats.getPlayerWinRate()) * 100);
+        System.out.printf("rounds: %d (won %d, lost %d), average round length: %.2f s%n",
+            stats.rounds, stats.roundsWon, stats.roundsLost, stats.getAverageRoundTime());
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.bgrant.sfs.headless;
+
+/**
+ * Totals gathered from a batch of simulated matches. Results of parallel batches are merged with {@link #add}.
+ */
+public class MatchStats {
+    public long matches;
+    public long playerWins;
+    public long opponentWins;
+    public long rounds;
+    public long roundsWon;
+    public long roundsLost;
+    //sum of the fighting time of all rounds, in seconds
+    public double totalRoundTime;
+    public long ticks;
+
+    public MatchStats add(MatchStats other) {
+        matches += other.matches;
+        playerWins += other.playerWins;
+        opponentWins += other.opponentWins;
+        rounds += other.rounds;
+        roundsWon += other.roundsWon;
+        roundsLost += other.roundsLost;
+        totalRoundTime += other.totalRoundTime;
+        ticks += other.ticks;
+        return this;
+    }
+
+    public double getPlayerWinRate() {
+        return matches == 0 ? 0 : (double) playerWins / matches;
+    }
+
+    public double getAverageRoundTime() {
+        return rounds == 0 ? 0 : totalRoundTime / rounds;
+    }
+}
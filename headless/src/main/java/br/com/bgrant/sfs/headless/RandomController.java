@@ -0,0 +1,77 @@
+package br.com.bgrant.sfs.headless;
+
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.Match;
+
+import java.util.SplittableRandom;
+
+/**
+ * Drives a fighter with random, but sensible, inputs: walk towards the other fighter, attack, block or stand still.
+ * It calls the same {@link Fighter} methods the keyboard does in the game screen.
+ */
+public class RandomController {
+
+    //how often a new action is chosen, in seconds
+    private static final float DECISION_INTERVAL = 0.2f;
+
+    private final Fighter self;
+    private final Fighter other;
+    private final SplittableRandom random;
+    private float decisionTimer;
+
+    public RandomController(Fighter self, Fighter other, SplittableRandom random) {
+        this.self = self;
+        this.other = other;
+        this.random = random;
+    }
+
+    public void update(float deltaTime, Match.RoundState roundState) {
+        decisionTimer -= deltaTime;
+        if (decisionTimer > 0) return;
+        decisionTimer = DECISION_INTERVAL;
+
+        self.stopBlocking();
+        int action = random.nextInt(10);
+        if (action < 5) {
+            // movement is only accepted while the round is in progress, like the keyboard input
+            if (roundState == Match.RoundState.IN_PROGRESS) {
+                approach();
+            }
+        } else if (action < 7) {
+            self.punch();
+        } else if (action < 8) {
+            self.kick();
+        } else if (action < 9) {
+            self.block();
+        } else {
+            stopMoving();
+        }
+    }
+
+    private void approach() {
+        stopMoving();
+        float xDistance = other.getPositionX() - self.getPositionX();
+        float yDistance = other.getPositionY() - self.getPositionY();
+        if (Math.abs(xDistance) > Match.FIGHTER_CONTACT_DISTANCE_X * 0.8f) {
+            if (xDistance < 0) {
+                self.moveLeft();
+            } else {
+                self.moveRight();
+            }
+        }
+        if (Math.abs(yDistance) > Match.FIGHTER_CONTACT_DISTANCE_Y * 0.5f) {
+            if (yDistance < 0) {
+                self.moveDown();
+            } else {
+                self.moveUp();
+            }
+        }
+    }
+
+    private void stopMoving() {
+        self.stopMovingLeft();
+        self.stopMovingRight();
+        self.stopMovingUp();
+        self.stopMovingDown();
+    }
+}
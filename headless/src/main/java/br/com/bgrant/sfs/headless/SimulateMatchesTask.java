@@ -0,0 +1,89 @@
+package br.com.bgrant.sfs.headless;
+
+import br.com.bgrant.sfs.objects.Fighter;
+import br.com.bgrant.sfs.objects.FighterStore;
+import br.com.bgrant.sfs.objects.FrameData;
+import br.com.bgrant.sfs.objects.Match;
+import br.com.bgrant.sfs.resources.GlobalVariables;
+import com.badlogic.gdx.graphics.Color;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulates a range of matches, splitting it in halves until the range is small enough to run on one worker.
+ * Every match is seeded with {@code seed + index}, so a run is reproducible regardless of the number of threads.
+ */
+public class SimulateMatchesTask extends RecursiveTask<MatchStats> {
+
+    //ForkJoinTask is Serializable, but the tasks never leave the pool
+    private static final long serialVersionUID = 1L;
+    //matches simulated by a single task before it stops splitting
+    private static final int MATCHES_PER_TASK = 32;
+    //safety net in case scripted inputs never finish a match
+    private static final int MAX_TICKS_PER_MATCH = (int) (GlobalVariables.SIMULATION_TICK_RATE * 60 * 10);
+    private static final float TIME_STEP = 1f / GlobalVariables.SIMULATION_TICK_RATE;
+
+    private final FrameData frameData;
+    private final long seed;
+    private final int from, to;
+
+    public SimulateMatchesTask(FrameData frameData, long seed, int from, int to) {
+        this.frameData = frameData;
+        this.seed = seed;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected MatchStats compute() {
+        if (to - from <= MATCHES_PER_TASK) {
+            MatchStats stats = new MatchStats();
+            for (int i = from; i < to; i++) {
+                simulateMatch(frameData, seed + i, stats);
+            }
+            return stats;
+        }
+        int middle = (from + to) >>> 1;
+        SimulateMatchesTask left = new SimulateMatchesTask(frameData, seed, from, middle);
+        left.fork();
+        MatchStats right = new SimulateMatchesTask(frameData, seed, middle, to).compute();
+        return right.add(left.join());
+    }
+
+    private static void simulateMatch(FrameData frameData, long matchSeed, MatchStats stats) {
+        FighterStore store = new FighterStore(2, frameData);
+        Fighter player = new Fighter(store, "Slim Stallone", Color.SCARLET);
+        Fighter opponent = new Fighter(store, "Thin Schwarzenegger", Color.ROYAL);
+        Match match = new Match(player, opponent);
+        SplittableRandom random = new SplittableRandom(matchSeed);
+        RandomController playerController = new RandomController(player, opponent, random);
+        RandomController opponentController = new RandomController(opponent, player, random);
+
+        match.startGame();
+        Match.RoundState previousRoundState = match.getRoundState();
+        int ticks = 0;
+        while (match.getGameState() != Match.GameState.GAME_OVER && ticks < MAX_TICKS_PER_MATCH) {
+            playerController.update(TIME_STEP, match.getRoundState());
+            opponentController.update(TIME_STEP, match.getRoundState());
+            match.update(TIME_STEP);
+            ticks++;
+
+            if (match.getRoundState() == Match.RoundState.ENDING && previousRoundState != Match.RoundState.ENDING) {
+                stats.rounds++;
+                stats.totalRoundTime += Match.MAX_ROUND_TIME - Math.max(match.getRoundTimer(), 0f);
+            }
+            previousRoundState = match.getRoundState();
+        }
+
+        stats.matches++;
+        stats.ticks += ticks;
+        stats.roundsWon += match.getRoundsWon();
+        stats.roundsLost += match.getRoundsLost();
+        if (match.getRoundsWon() > match.getRoundsLost()) {
+            stats.playerWins++;
+        } else {
+            stats.opponentWins++;
+        }
+    }
+}
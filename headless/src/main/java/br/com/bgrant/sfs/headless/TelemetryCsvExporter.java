@@ -0,0 +1,72 @@
+package br.com.bgrant.sfs.headless;
+
+import br.com.bgrant.sfs.objects.GameEvent;
+import br.com.bgrant.sfs.telemetry.TelemetryFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Locale;
+
+/**
+ * Converts telemetry files into CSV files next to them, one row per event. The first, second, flag and value columns
+ * depend on the event, see {@link GameEvent.Type}.
+ * Arguments: telemetry files or folders of them, the telemetry folder by default.
+ */
+public class TelemetryCsvExporter {
+
+    private static final String EXTENSION = ".sfst";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            args = new String[]{"telemetry"};
+        }
+        for (String arg : args) {
+            File file = new File(arg);
+            File[] files = file.isDirectory() ? file.listFiles((dir, name) -> name.endsWith(EXTENSION))
+                : new File[]{file};
+            if (files == null) continue;
+            for (File telemetry : files) {
+                String name = telemetry.getName();
+                File csv = new File(telemetry.getParentFile(),
+                    (name.endsWith(EXTENSION) ? name.substring(0, name.length() - EXTENSION.length()) : name) + ".csv");
+                int rows = export(telemetry, csv);
+                System.out.printf("%s -> %s, %d events%n", telemetry, csv, rows);
+            }
+        }
+    }
+
+    private static int export(File telemetry, File csv) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(telemetry.toPath()));
+        if (data.remaining() < TelemetryFormat.HEADER_SIZE || data.getInt() != TelemetryFormat.MAGIC) {
+            throw new IOException("Not a telemetry file: " + telemetry);
+        }
+        byte version = data.get();
+        if (version != TelemetryFormat.VERSION) {
+            throw new IOException("Unsupported telemetry version " + version + ": " + telemetry);
+        }
+        float tickRate = data.getFloat();
+        data.getLong(); // start time
+
+        GameEvent.Type[] types = GameEvent.Type.values();
+        int rows = 0;
+        try (PrintWriter out = new PrintWriter(csv, "UTF-8")) {
+            out.println("tick,seconds,event,first,second,flag,value");
+            //a file whose writer was stopped may end in the middle of a record
+            while (data.remaining() >= TelemetryFormat.RECORD_SIZE) {
+                long tick = data.getLong();
+                GameEvent.Type type = types[data.get() & 0xFF];
+                int first = data.get() & 0xFF;
+                int second = data.get() & 0xFF;
+                boolean flag = data.get() != 0;
+                float value = data.getFloat();
+                out.printf(Locale.ROOT, "%d,%.3f,%s,%d,%d,%b,%.2f%n", tick, tick / tickRate, type, first, second,
+                    flag, value);
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -1,33 +1,93 @@
 package br.com.bgrant.sfs.lwjgl3;
 
+import br.com.bgrant.sfs.debug.FramePacer;
+import br.com.bgrant.sfs.debug.StartupTracer;
+import br.com.bgrant.sfs.net.VersusConfig;
 import br.com.bgrant.sfs.resources.GlobalVariables;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import br.com.bgrant.sfs.SFSGame;
 
+import java.io.File;
+
 /** Launches the desktop (LWJGL3) application. */
 public class DesktopLauncher {
+    private static final String START_NEW_JVM_SPAN = "StartupHelper.startNewJvmIfRequired";
+    private static final String REPLAY_ARGUMENT = "--replay";
+    private static final String ARENA_ARGUMENT = "--arena";
+    private static final String THREADED_SIMULATION_ARGUMENT = "--threaded-simulation";
+    private static final String PACING_ARGUMENT = "--pacing";
+    private static final String FPS_ARGUMENT = "--fps";
+
     public static void main(String[] args) {
+        StartupTracer.begin(START_NEW_JVM_SPAN);
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        StartupTracer.end(START_NEW_JVM_SPAN);
+        //ended by SFSGame.create
+        StartupTracer.begin(SFSGame.BACKEND_INIT_SPAN);
+        // --replay <file> watches a recorded match instead of playing
+        String replay = findArgument(args, REPLAY_ARGUMENT);
+        // --arena <fighters> starts a free-for-all with that many fighters
+        String arena = findArgument(args, ARENA_ARGUMENT);
+        // --threaded-simulation runs single player matches on their own thread
+        boolean threadedSimulation = hasArgument(args, THREADED_SIMULATION_ARGUMENT);
+        // --pacing <vsync|cap|uncapped|hybrid> and --fps <rate> choose how frames are paced, the rate defaults to
+        // the refresh rate of the monitor
+        String pacing = findArgument(args, PACING_ARGUMENT);
+        String fps = findArgument(args, FPS_ARGUMENT);
+        FramePacer framePacer = new FramePacer(pacing == null ? FramePacer.Mode.VSYNC : FramePacer.Mode.parse(pacing),
+            fps == null ? Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate : Integer.parseInt(fps));
+        createApplication(VersusConfig.parse(args), replay == null ? null : new File(replay),
+            arena == null ? 0 : Integer.parseInt(arena), threadedSimulation, framePacer);
+    }
+
+    private static Lwjgl3Application createApplication(VersusConfig versus, File replayFile, int arenaSize,
+                                                       boolean threadedSimulation, FramePacer framePacer) {
+        return new Lwjgl3Application(new SFSGame(versus, replayFile, arenaSize, threadedSimulation, framePacer),
+            getDefaultConfiguration(framePacer));
+    }
+
+    private static boolean hasArgument(String[] args, String name) {
+        for (String arg : args) {
+            if (name.equals(arg)) return true;
+        }
+        return false;
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new SFSGame(), getDefaultConfiguration());
+    // the value after the option, or null if it isn't there
+    private static String findArgument(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (name.equals(args[i])) return args[i + 1];
+        }
+        return null;
     }
 
-    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
+    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration(FramePacer framePacer) {
         Lwjgl3ApplicationConfiguration configuration = new Lwjgl3ApplicationConfiguration();
         configuration.setTitle("Stick Figure Showdown");
-        //// Vsync limits the frames per second to what your hardware can display, and helps eliminate
-        //// screen tearing. This setting doesn't always work on Linux, so the line after is a safeguard.
-        configuration.useVsync(true);
-        //// Limits FPS to the refresh rate of the currently active monitor, plus 1 to try to match fractional
-        //// refresh rates. The Vsync setting above should limit the actual FPS to match the monitor.
-        configuration.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
-        //// If you remove the above line and set Vsync to false, you can get unlimited FPS, which can be
-        //// useful for testing performance, but can also be very stressful to some hardware.
-        //// You may also need to configure GPU drivers to fully disable Vsync; this can cause screen tearing.
+        switch (framePacer.getMode()) {
+            case VSYNC:
+                //// Vsync limits the frames per second to what your hardware can display, and helps eliminate
+                //// screen tearing. This setting doesn't always work on Linux, so the line after is a safeguard.
+                configuration.useVsync(true);
+                //// Limits FPS to the refresh rate of the currently active monitor, plus 1 to try to match fractional
+                //// refresh rates. The Vsync setting above should limit the actual FPS to match the monitor.
+                configuration.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
+                break;
+            case CAP:
+                // the backend sleeps between frames to keep to the rate
+                configuration.useVsync(false);
+                configuration.setForegroundFPS(framePacer.getTargetFps());
+                break;
+            default:
+                //// Without Vsync and a foreground FPS you get unlimited FPS, which can be useful for testing
+                //// performance, but can also be very stressful to some hardware. You may also need to configure
+                //// GPU drivers to fully disable Vsync; this can cause screen tearing.
+                //// The hybrid mode paces the frames itself, in SFSGame.render.
+                configuration.useVsync(false);
+                configuration.setForegroundFPS(0);
+                break;
+        }
 
 //        configuration.setWindowedMode(640, 480);
 //        configuration.setWindowedMode(640*2, 480*2);